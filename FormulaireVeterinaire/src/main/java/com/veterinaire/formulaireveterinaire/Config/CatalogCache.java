@@ -0,0 +1,186 @@
+package com.veterinaire.formulaireveterinaire.Config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veterinaire.formulaireveterinaire.DAO.ProductRepository;
+import com.veterinaire.formulaireveterinaire.entity.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The public catalog (all products, per category, per sub-category) as ready-to-send JSON bytes, optionally
+ * pre-gzipped, with a content-based ETag. A read is a volatile load and a map lookup: no query, no Jackson.
+ * <p>
+ * The whole catalog is one immutable snapshot, rebuilt from a single {@code findAll()} and swapped atomically:
+ * readers see either the old or the new catalog, never a mix. Admin writes rebuild it right away
+ * ({@link #refresh()}); stock movements only mark it stale ({@link #invalidate()}), and it is rebuilt by the
+ * next read at most every {@code catalog.cache.min-rebuild-interval-ms}. Only one thread rebuilds; the others
+ * keep serving the previous snapshot meanwhile.
+ */
+@Component
+public class CatalogCache {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCache.class);
+
+    public record Payload(byte[] json, byte[] gzip, String etag) {
+        public String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gz\"";
+        }
+    }
+
+    private record Snapshot(Payload all, Map<String, Payload> byCategory, Map<String, Payload> bySubCategory,
+                            Payload empty, long version, long builtAt) {}
+
+    private final ProductRepository productRepository;
+    private final ObjectMapper objectMapper;
+    private final Counter rebuilds;
+
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final AtomicLong version = new AtomicLong();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+
+    @Value("${catalog.cache.gzip:true}")
+    private boolean gzip;
+
+    @Value("${catalog.cache.min-rebuild-interval-ms:1000}")
+    private long minRebuildIntervalMs;
+
+    public CatalogCache(ProductRepository productRepository, ObjectMapper objectMapper, MeterRegistry meterRegistry) {
+        this.productRepository = productRepository;
+        this.objectMapper = objectMapper;
+        this.rebuilds = Counter.builder("catalog.cache.rebuilds").register(meterRegistry);
+    }
+
+    public Payload all() {
+        return snapshot().all();
+    }
+
+    /** Unknown names get an empty list, like the query they replace. */
+    public Payload category(String category) {
+        Snapshot snapshot = snapshot();
+        return snapshot.byCategory().getOrDefault(category, snapshot.empty());
+    }
+
+    public Payload subCategory(String subCategory) {
+        Snapshot snapshot = snapshot();
+        return snapshot.bySubCategory().getOrDefault(subCategory, snapshot.empty());
+    }
+
+    /** Rebuilds and swaps the catalog now (after commit when a transaction is active). */
+    public void refresh() {
+        afterCommit(() -> {
+            long target = version.incrementAndGet();
+            rebuildLock.lock();
+            try {
+                Snapshot snapshot = current.get();
+                if (snapshot == null || snapshot.version() < target) {
+                    current.set(build());
+                }
+            } finally {
+                rebuildLock.unlock();
+            }
+        });
+    }
+
+    /** Marks the catalog stale (after commit when a transaction is active); the next read rebuilds it. */
+    public void invalidate() {
+        afterCommit(version::incrementAndGet);
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        if (snapshot != null && (snapshot.version() == version.get()
+                || System.currentTimeMillis() - snapshot.builtAt() < minRebuildIntervalMs)) {
+            return snapshot;
+        }
+        if (snapshot != null) {
+            if (!rebuildLock.tryLock()) {
+                return snapshot;   // someone else is rebuilding: the previous catalog is still good to serve
+            }
+        } else {
+            rebuildLock.lock();    // nothing to serve yet: wait for the first build
+        }
+        try {
+            snapshot = current.get();
+            if (snapshot == null || snapshot.version() != version.get()) {
+                snapshot = build();
+                current.set(snapshot);
+            }
+            return snapshot;
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    // Caller holds rebuildLock. The version is read before the query, so a change committed during the build
+    // leaves the new snapshot stale and it is rebuilt again
+    private Snapshot build() {
+        long builtVersion = version.get();
+        List<Product> products = productRepository.findAll();
+
+        Map<String, Payload> byCategory = new HashMap<>();
+        products.stream().filter(product -> product.getCategory() != null)
+                .collect(Collectors.groupingBy(product -> product.getCategory().name()))
+                .forEach((name, list) -> byCategory.put(name, payload(list)));
+        Map<String, Payload> bySubCategory = new HashMap<>();
+        products.stream().filter(product -> product.getSubCategory() != null)
+                .collect(Collectors.groupingBy(product -> product.getSubCategory().name()))
+                .forEach((name, list) -> bySubCategory.put(name, payload(list)));
+
+        Snapshot snapshot = new Snapshot(payload(products), Map.copyOf(byCategory), Map.copyOf(bySubCategory),
+                payload(List.of()), builtVersion, System.currentTimeMillis());
+        rebuilds.increment();
+        logger.debug("Catalog cache rebuilt: {} products, {} bytes", products.size(), snapshot.all().json().length);
+        return snapshot;
+    }
+
+    private Payload payload(List<Product> products) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(products);
+            return new Payload(json, gzip ? gzip(json) : null, "\"" + DigestUtils.md5DigestAsHex(json) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Catalog could not be serialized", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(json.length / 4 + 64);
+        try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+            out.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.veterinaire.formulaireveterinaire.Config;
+
+import com.veterinaire.formulaireveterinaire.Enums.EndpointPolicy;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Single source of truth for which endpoints need a token, an admin role or a live subscription.
+ * Read by both {@link SecurityConfig} and {@link JwtAuthenticationFilter} so the two can no longer drift.
+ * <p>
+ * Open paths ({@link EndpointPolicy#isOpen()}) match exactly: a route added later under one of them is not
+ * open unless it is declared here. Every other entry is a prefix. The entries are compiled at startup into a
+ * character trie; a lookup walks the URI once and returns the exact entry for the whole URI if there is one,
+ * otherwise the policy of the longest matching prefix that ends on a path-segment boundary
+ * ("/api/cart" matches "/api/cart" and "/api/cart/items", not "/api/cartx").
+ * {@link #openPatterns()} and {@link #adminPatterns()} hand the security chain the same rules.
+ */
+@Component
+public class EndpointPolicyRegistry {
+
+    private static final EndpointPolicy DEFAULT_POLICY = EndpointPolicy.SUBSCRIPTION_REQUIRED;
+
+    private static final Map<String, EndpointPolicy> POLICIES = new LinkedHashMap<>();
+
+    static {
+        POLICIES.put("/api/login", EndpointPolicy.PUBLIC);
+        POLICIES.put("/api/users/register", EndpointPolicy.PUBLIC);
+        POLICIES.put("/api/products/all", EndpointPolicy.PUBLIC);
+        POLICIES.put("/api/cabinets/all", EndpointPolicy.PUBLIC);
+
+        // An expired token must not prevent clearing the cookie
+        POLICIES.put("/api/logout", EndpointPolicy.TOKEN_OPTIONAL);
+
+        POLICIES.put("/api/users", EndpointPolicy.ADMIN);
+        POLICIES.put("/api/orders/admin", EndpointPolicy.ADMIN);
+        POLICIES.put("/api/sales", EndpointPolicy.ADMIN);
+        POLICIES.put("/actuator", EndpointPolicy.ADMIN);
+
+        POLICIES.put("/api/reset-password", EndpointPolicy.AUTHENTICATED);
+        POLICIES.put("/api/veterinaires/me", EndpointPolicy.AUTHENTICATED);
+        POLICIES.put("/api/veterinaires/all", EndpointPolicy.AUTHENTICATED);
+        POLICIES.put("/api/cart", EndpointPolicy.AUTHENTICATED);
+        POLICIES.put("/api/orders", EndpointPolicy.AUTHENTICATED);
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new HashMap<>();
+        private EndpointPolicy exact;     // open path: this URI only
+        private EndpointPolicy prefix;    // this URI and everything below it
+    }
+
+    private final Node root = new Node();
+
+    public EndpointPolicyRegistry() {
+        POLICIES.forEach(this::insert);
+    }
+
+    private void insert(String prefix, EndpointPolicy policy) {
+        Node node = root;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = node.children.computeIfAbsent(prefix.charAt(i), c -> new Node());
+        }
+        if (policy.isOpen()) {
+            node.exact = policy;
+        } else {
+            node.prefix = policy;
+        }
+    }
+
+    public EndpointPolicy resolve(String path) {
+        EndpointPolicy match = DEFAULT_POLICY;
+        Node node = root;
+        int length = path.length();
+        for (int i = 0; i < length; i++) {
+            node = node.children.get(path.charAt(i));
+            if (node == null) {
+                return match;
+            }
+            if (node.prefix != null && (i + 1 == length || path.charAt(i + 1) == '/')) {
+                match = node.prefix;
+            }
+        }
+        return node.exact != null ? node.exact : match;
+    }
+
+    /** Paths for {@code requestMatchers(...).permitAll()}: the open paths, exactly. */
+    public String[] openPatterns() {
+        List<String> patterns = new ArrayList<>();
+        POLICIES.forEach((path, policy) -> {
+            if (policy.isOpen()) {
+                patterns.add(path);
+            }
+        });
+        return patterns.toArray(new String[0]);
+    }
+
+    /** Patterns for {@code requestMatchers(...).hasRole("ADMIN")}: each admin prefix and everything below it. */
+    public String[] adminPatterns() {
+        List<String> patterns = new ArrayList<>();
+        POLICIES.forEach((prefix, policy) -> {
+            if (policy == EndpointPolicy.ADMIN) {
+                patterns.add(prefix);
+                patterns.add(prefix + "/**");
+            }
+        });
+        return patterns.toArray(new String[0]);
+    }
+}
@@ -1,18 +1,16 @@
 package com.veterinaire.formulaireveterinaire.Config;
 
-import com.veterinaire.formulaireveterinaire.Enums.SubscriptionStatus;
-import com.veterinaire.formulaireveterinaire.DAO.SubscriptionRepository;
-import com.veterinaire.formulaireveterinaire.DAO.UserRepository;
-import com.veterinaire.formulaireveterinaire.entity.Subscription;
-import com.veterinaire.formulaireveterinaire.entity.User;
+import com.veterinaire.formulaireveterinaire.Enums.EndpointPolicy;
+import com.veterinaire.formulaireveterinaire.service.TokenRevocationService;
 import jakarta.servlet.http.Cookie;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,8 +21,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import java.io.IOException;
 import java.time.LocalDateTime;
-import java.util.Arrays;
-import java.util.List;
+import java.util.Collections;
 
 @Component
 @RequiredArgsConstructor
@@ -33,25 +30,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
 
     private final JwtUtil jwtUtil;
-    private final UserDetailsService userDetailsService;
-    private final SubscriptionRepository subscriptionRepository;
-    private final UserRepository userRepository;
-
-    private static final List<String> PERMIT_ALL_ENDPOINTS = Arrays.asList(
-            "/api/login", "/api/users/register"
-    );
-
-    private static final List<String> SKIP_SUBSCRIPTION_CHECK_ENDPOINTS = Arrays.asList(
-            "/api/veterinaires/me",
-            "/api/veterinaires/all",
-            "/api/logout",
-            "/api/reset-password",
-            "/api/cart"
-    );
-
-
-
-
+    private final SecurityVersionRegistry securityVersionRegistry;
+    private final SubscriptionEntitlementCache entitlementCache;
+    private final EndpointPolicyRegistry endpointPolicies;
+    private final TokenRevocationService tokenRevocationService;
 
 
     @Override
@@ -62,26 +44,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         logger.debug("Processing request for URI: {}", requestURI);
         logger.debug("Request method: {}", request.getMethod());
 
+        EndpointPolicy policy = endpointPolicies.resolve(requestURI);
+
         // Skip authentication for permitAll endpoints
-        boolean isPermitAll = PERMIT_ALL_ENDPOINTS.stream().anyMatch(requestURI::startsWith);
-        if (isPermitAll) {
+        if (policy == EndpointPolicy.PUBLIC) {
             logger.debug("Skipping authentication for permitAll endpoint: {}", requestURI);
             filterChain.doFilter(request, response);
             return;
         }
 
-        String token = null;
-        String email = null;
+        JwtClaims claims = null;
 
         // Extract token from cookies
         Cookie[] cookies = request.getCookies();
         if (cookies != null) {
             for (Cookie cookie : cookies) {
                 if ("access_token".equals(cookie.getName())) {
-                    token = cookie.getValue();
                     try {
-                        email = jwtUtil.extractEmail(token);
+                        // Single parse: signature and expiry are checked here, or served from the verified-token cache
+                        claims = jwtUtil.verify(cookie.getValue());
                     } catch (Exception e) {
+                        if (policy == EndpointPolicy.TOKEN_OPTIONAL) {
+                            logger.debug("Ignoring invalid token on {}: {}", requestURI, e.getMessage());
+                            break;
+                        }
                         logger.error("Invalid token: {}", e.getMessage());
                         response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
                         response.setContentType("application/json");
@@ -93,23 +79,38 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             }
         }
 
-        if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            final String finalEmail = email; // ✅ make it effectively final
+        if (claims != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+            final String finalEmail = claims.email();
 
-            UserDetails userDetails = userDetailsService.loadUserByUsername(finalEmail);
+            if (policy == EndpointPolicy.TOKEN_OPTIONAL && !isUsable(claims)) {
+                logger.debug("Ignoring revoked or outdated token on {}", requestURI);
+                filterChain.doFilter(request, response);
+                return;
+            }
 
-            if (userDetails != null && jwtUtil.validateToken(token, finalEmail)) {
-                User user = userRepository.findByEmail(finalEmail)
-                        .orElseThrow(() -> new RuntimeException("User not found: " + finalEmail));
+            if (claims.tokenId() != null && tokenRevocationService.isRevoked(claims.tokenId())) {
+                logger.warn("Revoked token used for email: {}", finalEmail);
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.setContentType("application/json");
+                response.getWriter().write("{\"error\": \"Token revoked\"}");
+                return;
+            }
 
-                boolean skipSubscriptionCheck = SKIP_SUBSCRIPTION_CHECK_ENDPOINTS.stream()
-                        .anyMatch(requestURI::startsWith);
+            // Identity and role come from the signed claims; the subscription check is a cache lookup
+            if (!claims.isLegacy() && securityVersionRegistry.isCurrent(claims.userId(), claims.securityVersion())) {
+                boolean skipSubscriptionCheck = policy != EndpointPolicy.SUBSCRIPTION_REQUIRED;
 
-                if (!user.isAdmin() && !skipSubscriptionCheck) {
-                    Subscription subscription = subscriptionRepository.findByUserEmail(finalEmail)
-                            .orElseThrow(() -> new RuntimeException("No subscription found for user: " + finalEmail));
+                if (!claims.admin() && !skipSubscriptionCheck) {
+                    LocalDateTime subscriptionEnd = entitlementCache.getSubscriptionEnd(claims.userId());
+                    if (subscriptionEnd == null) {
+                        logger.warn("No subscription found for user: {}", finalEmail);
+                        response.setStatus(HttpServletResponse.SC_FORBIDDEN);
+                        response.setContentType("application/json");
+                        response.getWriter().write("{\"error\": \"No subscription found\"}");
+                        return;
+                    }
 
-                    if (subscription.getEndDate().isBefore(LocalDateTime.now())) {
+                    if (subscriptionEnd.isBefore(LocalDateTime.now())) {
                         logger.warn("Subscription expired for user: {}", finalEmail);
                         response.setStatus(HttpServletResponse.SC_FORBIDDEN);
                         response.setContentType("application/json");
@@ -120,17 +121,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     logger.debug("Skipping subscription check for endpoint {} or admin user", requestURI);
                 }
 
+                UserDetails userDetails = new User(finalEmail, "",
+                        Collections.singletonList(new SimpleGrantedAuthority(claims.role())));
+
                 UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
                         userDetails, null, userDetails.getAuthorities());
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                request.setAttribute(JwtClaims.REQUEST_ATTRIBUTE, claims);   // user id for controllers, no lookup
                 logger.debug("Authenticated user: {}", finalEmail);
             } else {
-                logger.warn("Invalid token or user details for email: {}", finalEmail);
+                logger.warn("Outdated or invalidated token for email: {}", finalEmail);
+                response.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+                response.setContentType("application/json");
+                response.getWriter().write("{\"error\": \"Token no longer valid, please log in again\"}");
+                return;
             }
         }
 
 
         filterChain.doFilter(request, response);
     }
+
+    private boolean isUsable(JwtClaims claims) {
+        return (claims.tokenId() == null || !tokenRevocationService.isRevoked(claims.tokenId()))
+                && !claims.isLegacy() && securityVersionRegistry.isCurrent(claims.userId(), claims.securityVersion());
+    }
 }
\ No newline at end of file
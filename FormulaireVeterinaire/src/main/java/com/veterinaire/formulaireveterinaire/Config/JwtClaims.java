@@ -0,0 +1,54 @@
+package com.veterinaire.formulaireveterinaire.Config;
+
+import io.jsonwebtoken.Claims;
+
+import java.time.Instant;
+
+/**
+ * Immutable view of a verified access token. Built once per token by {@link JwtUtil#verify(String)}
+ * so the filter never has to re-parse or re-check the signature.
+ * <p>
+ * The token carries everything the filter needs to authenticate a request (user id, role,
+ * security version), so no user lookup is required.
+ */
+public record JwtClaims(String tokenId,
+                        String email,
+                        Long userId,
+                        boolean admin,
+                        String role,
+                        int securityVersion,
+                        Instant issuedAt,
+                        Instant expiresAt) {
+
+    /** Request attribute under which {@link JwtAuthenticationFilter} exposes the claims of the authenticated request. */
+    public static final String REQUEST_ATTRIBUTE = "com.veterinaire.formulaireveterinaire.Config.JwtClaims";
+
+    static final String USER_ID = "uid";
+    static final String IS_ADMIN = "isAdmin";
+    static final String ROLE = "role";
+    static final String SECURITY_VERSION = "sv";
+
+    static JwtClaims from(Claims body) {
+        Boolean isAdmin = body.get(IS_ADMIN, Boolean.class);
+        Number userId = body.get(USER_ID, Number.class);
+        Number securityVersion = body.get(SECURITY_VERSION, Number.class);
+        return new JwtClaims(
+                body.getId(),
+                body.getSubject(),
+                userId != null ? userId.longValue() : null,
+                Boolean.TRUE.equals(isAdmin),
+                body.get(ROLE, String.class),
+                securityVersion != null ? securityVersion.intValue() : -1,
+                body.getIssuedAt() != null ? body.getIssuedAt().toInstant() : null,
+                body.getExpiration().toInstant());
+    }
+
+    /** Tokens issued before id / user id / role / version were embedded cannot be trusted without a DB lookup. */
+    public boolean isLegacy() {
+        return tokenId == null || userId == null || role == null || securityVersion < 0;
+    }
+
+    public boolean isExpired(long nowMillis) {
+        return expiresAt.toEpochMilli() <= nowMillis;
+    }
+}
@@ -1,7 +1,9 @@
 package com.veterinaire.formulaireveterinaire.Config;
 
+import com.veterinaire.formulaireveterinaire.entity.User;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
@@ -10,6 +12,7 @@ import java.security.Key;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Component
 public class JwtUtil {
@@ -17,20 +20,37 @@ public class JwtUtil {
     @Value("${jwt.secret}")
     private String secret;
 
-    private Key getSigningKey() {
-        return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+    @Value("${jwt.verified-cache.max-size:10000}")
+    private int verifiedCacheMaxSize;
+
+    // Built once: Keys.hmacShaKeyFor and the parser builder are not free.
+    private Key signingKey;
+    private JwtParser parser;
+    private VerifiedTokenCache verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+        parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        verifiedTokens = new VerifiedTokenCache(verifiedCacheMaxSize);
     }
 
-    public String generateToken(String email, boolean isAdmin) {
+    public String generateToken(User user) {
         Map<String, Object> claims = new HashMap<>();
-        claims.put("isAdmin", isAdmin);
+        claims.put(JwtClaims.IS_ADMIN, user.isAdmin());
+        claims.put(JwtClaims.USER_ID, user.getId());
+        claims.put(JwtClaims.ROLE, user.isAdmin() ? "ROLE_ADMIN" : "ROLE_USER");
+        claims.put(JwtClaims.SECURITY_VERSION, user.getSecurityVersion());
         return Jwts.builder()
                 .setClaims(claims)
-                .setSubject(email)
+                .setId(UUID.randomUUID().toString()) // jti, the key of the revocation list
+                .setSubject(user.getEmail())
                 .setIssuedAt(new Date())
                // .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 10)) // 10 hours
                 .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24 * 7)) // 7 days
-                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+                .signWith(signingKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
@@ -39,35 +59,30 @@ public class JwtUtil {
 //                .setSubject(email)
 //                .setIssuedAt(new Date())
 //                .setExpiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24 * 7)) // 7 days
-//                .signWith(getSigningKey(), SignatureAlgorithm.HS256)
+//                .signWith(signingKey, SignatureAlgorithm.HS256)
 //                .compact();
 //    }
 
-    public String extractEmail(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getSubject();
-    }
-
-    public boolean validateToken(String token, String email) {
-        try {
-            String extractedEmail = extractEmail(token);
-            return (extractedEmail.equals(email) && !isTokenExpired(token));
-        } catch (JwtException e) {
-            return false;
+    /**
+     * Parses and verifies the token once. Tokens seen before are served from the
+     * verified-token cache until their {@code exp}, skipping the HMAC check entirely.
+     *
+     * @throws JwtException if the token is malformed, badly signed or expired
+     */
+    public JwtClaims verify(String token) {
+        long now = System.currentTimeMillis();
+        JwtClaims cached = verifiedTokens.get(token, now);
+        if (cached != null) {
+            return cached;
         }
+
+        // parseClaimsJws rejects expired tokens itself (ExpiredJwtException)
+        JwtClaims claims = JwtClaims.from(parser.parseClaimsJws(token).getBody());
+        verifiedTokens.put(token, claims, now);
+        return claims;
     }
 
-    private boolean isTokenExpired(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSigningKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody()
-                .getExpiration()
-                .before(new Date());
+    public String extractEmail(String token) {
+        return verify(token).email();
     }
 }
@@ -1,9 +1,8 @@
 package com.veterinaire.formulaireveterinaire.Config;
 
-import com.veterinaire.formulaireveterinaire.DAO.SubscriptionRepository;
-import com.veterinaire.formulaireveterinaire.DAO.UserRepository;
-import com.veterinaire.formulaireveterinaire.serviceimpl.CustomUserDetailsService;
 import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -24,19 +23,15 @@ import java.util.List;
 @EnableWebSecurity
 public class SecurityConfig {
 
-    private final JwtUtil jwtUtil;
-    private final CustomUserDetailsService userDetailsService;
-    private final SubscriptionRepository subscriptionRepository;
-    private final UserRepository userRepository;
+    private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final EndpointPolicyRegistry endpointPolicies;
     private final CorsConfigurationSource corsConfigurationSource; 
 
     
-    public SecurityConfig(JwtUtil jwtUtil, CustomUserDetailsService userDetailsService,
-                          SubscriptionRepository subscriptionRepository, UserRepository userRepository,CorsConfigurationSource corsConfigurationSource) {
-        this.jwtUtil = jwtUtil;
-        this.userDetailsService = userDetailsService;
-        this.subscriptionRepository = subscriptionRepository;
-        this.userRepository = userRepository;
+    public SecurityConfig(JwtAuthenticationFilter jwtAuthenticationFilter, EndpointPolicyRegistry endpointPolicies,
+                          CorsConfigurationSource corsConfigurationSource) {
+        this.jwtAuthenticationFilter = jwtAuthenticationFilter;
+        this.endpointPolicies = endpointPolicies;
         this.corsConfigurationSource = corsConfigurationSource;
 
     }
@@ -48,11 +43,9 @@ public class SecurityConfig {
                 .cors(cors -> cors.configurationSource(corsConfigurationSource)) // use CorsConfig bean
                 .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/api/login", "/api/logout" ,"/api/users/register").permitAll()
-                        .requestMatchers("/api/reset-password").authenticated()
-                        .requestMatchers("/api/users/**").hasRole("ADMIN")
-                        .requestMatchers("/api/products/all").permitAll()
-                        .requestMatchers("/api/cabinets/all").permitAll()
+                        // Endpoint rules come from the shared policy registry (also used by JwtAuthenticationFilter)
+                        .requestMatchers(endpointPolicies.openPatterns()).permitAll()
+                        .requestMatchers(endpointPolicies.adminPatterns()).hasRole("ADMIN")
 
                      //  .requestMatchers("/api/veterinaires/update").permitAll()
                         //.requestMatchers("/api/veterinaires/**").permitAll()
@@ -75,18 +68,25 @@ public class SecurityConfig {
                         })
                 );
 
-        http.addFilterBefore(
-                new JwtAuthenticationFilter(jwtUtil, userDetailsService, subscriptionRepository, userRepository),
-                UsernamePasswordAuthenticationFilter.class
-        );
+        http.addFilterBefore(jwtAuthenticationFilter, UsernamePasswordAuthenticationFilter.class);
 
         return http.build();
     }
 
+    // The filter is a @Component, so Boot would also register it on the servlet container and
+    // every request would go through it a second time. It only belongs in the security chain.
+    @Bean
+    public FilterRegistrationBean<JwtAuthenticationFilter> jwtAuthenticationFilterRegistration(JwtAuthenticationFilter filter) {
+        FilterRegistrationBean<JwtAuthenticationFilter> registration = new FilterRegistrationBean<>(filter);
+        registration.setEnabled(false);
+        return registration;
+    }
+
 
+    // Raising the cost is safe: older hashes are transparently re-hashed on the next successful login
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(@Value("${security.bcrypt.strength:10}") int strength) {
+        return new BCryptPasswordEncoder(strength);
     }
 
     @Bean
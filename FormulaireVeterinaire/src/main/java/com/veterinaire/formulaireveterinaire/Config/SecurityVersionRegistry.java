@@ -0,0 +1,72 @@
+package com.veterinaire.formulaireveterinaire.Config;
+
+import com.veterinaire.formulaireveterinaire.DAO.UserRepository;
+import com.veterinaire.formulaireveterinaire.entity.User;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user security version counter. Every JWT carries the version it was issued with ("sv");
+ * bumping the counter invalidates all tokens issued before, without a per-request DB lookup.
+ * Versions are read from the database at most once per user per TTL.
+ */
+@Component
+public class SecurityVersionRegistry {
+
+    private static final Logger logger = LoggerFactory.getLogger(SecurityVersionRegistry.class);
+
+    private record Entry(int version, long loadedAt) {}
+
+    private final UserRepository userRepository;
+    private final ConcurrentHashMap<Long, Entry> versions = new ConcurrentHashMap<>();
+
+    @Value("${security.version-cache.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    public SecurityVersionRegistry(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    public boolean isCurrent(Long userId, int tokenVersion) {
+        long now = System.currentTimeMillis();
+        Entry entry = versions.get(userId);
+        if (entry == null || now - entry.loadedAt() > ttlSeconds * 1000) {
+            Integer current = userRepository.findSecurityVersionById(userId).orElse(null);
+            if (current == null) {
+                versions.remove(userId);
+                return false; // user deleted
+            }
+            entry = new Entry(current, now);
+            versions.put(userId, entry);
+        }
+        return tokenVersion >= entry.version();
+    }
+
+    /**
+     * Increments the user's version so every token issued so far is refused.
+     * The caller is responsible for saving the user.
+     */
+    public void bump(User user) {
+        int newVersion = user.getSecurityVersion() + 1;
+        user.setSecurityVersion(newVersion);
+        Long userId = user.getId();
+        logger.info("Security version of user ID {} bumped to {}", userId, newVersion);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    versions.put(userId, new Entry(newVersion, System.currentTimeMillis()));
+                }
+            });
+        } else {
+            versions.put(userId, new Entry(newVersion, System.currentTimeMillis()));
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package com.veterinaire.formulaireveterinaire.Config;
+
+import com.veterinaire.formulaireveterinaire.DAO.SubscriptionRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * userId -> subscription end date, so the per-request expiry check is a hash lookup instead of a query.
+ * Bounded and TTL-backed; subscription writes invalidate the entry (after commit when a transaction is active).
+ * Hits, misses and evictions are published as {@code entitlement.cache.*} meters.
+ */
+@Component
+public class SubscriptionEntitlementCache {
+
+    private static final long PURGE_INTERVAL_MS = 60_000;
+
+    /** endDate is null when the user has no subscription; that answer is cached too. */
+    private record Entry(LocalDateTime endDate, long expiresAt) {}
+
+    private final SubscriptionRepository subscriptionRepository;
+    private final ConcurrentHashMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong nextPurgeAt = new AtomicLong();
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter invalidations;
+
+    @Value("${entitlement.cache.ttl-seconds:600}")
+    private long ttlSeconds;
+
+    @Value("${entitlement.cache.max-size:50000}")
+    private int maxSize;
+
+    public SubscriptionEntitlementCache(SubscriptionRepository subscriptionRepository, MeterRegistry meterRegistry) {
+        this.subscriptionRepository = subscriptionRepository;
+        this.hits = Counter.builder("entitlement.cache.hits").register(meterRegistry);
+        this.misses = Counter.builder("entitlement.cache.misses").register(meterRegistry);
+        this.invalidations = Counter.builder("entitlement.cache.invalidations").register(meterRegistry);
+        meterRegistry.gauge("entitlement.cache.size", entries, ConcurrentHashMap::size);
+    }
+
+    /**
+     * @return the subscription end date of the user, or null if the user has no subscription
+     */
+    public LocalDateTime getSubscriptionEnd(Long userId) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(userId);
+        if (entry != null && entry.expiresAt() > now) {
+            hits.increment();
+            return entry.endDate();
+        }
+
+        misses.increment();
+        LocalDateTime endDate = subscriptionRepository.findEndDateByUserId(userId).orElse(null);
+        if (entries.size() >= maxSize) {
+            purgeExpired(now);
+        }
+        if (entries.size() < maxSize) {
+            entries.put(userId, new Entry(endDate, now + ttlSeconds * 1000));
+        }
+        return endDate;
+    }
+
+    public void invalidate(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(userId);
+                }
+            });
+        } else {
+            evict(userId);
+        }
+    }
+
+    private void evict(Long userId) {
+        if (entries.remove(userId) != null) {
+            invalidations.increment();
+        }
+    }
+
+    private void purgeExpired(long now) {
+        long next = nextPurgeAt.get();
+        if (now < next || !nextPurgeAt.compareAndSet(next, now + PURGE_INTERVAL_MS)) {
+            return;
+        }
+        entries.values().removeIf(entry -> entry.expiresAt() <= now);
+    }
+}
@@ -0,0 +1,63 @@
+package com.veterinaire.formulaireveterinaire.Config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of tokens whose signature has already been checked.
+ * Entries die at the token's own {@code exp}, so a hit is always as trustworthy as a fresh parse.
+ */
+class VerifiedTokenCache {
+
+    private static final long PURGE_INTERVAL_MS = 60_000;
+
+    private final int maxSize;
+    private final ConcurrentHashMap<String, JwtClaims> entries = new ConcurrentHashMap<>();
+    private final AtomicLong nextPurgeAt = new AtomicLong();
+
+    VerifiedTokenCache(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    JwtClaims get(String token, long nowMillis) {
+        JwtClaims claims = entries.get(token);
+        if (claims == null) {
+            return null;
+        }
+        if (claims.isExpired(nowMillis)) {
+            entries.remove(token, claims);
+            return null;
+        }
+        return claims;
+    }
+
+    void put(String token, JwtClaims claims, long nowMillis) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            purgeExpired(nowMillis);
+            if (entries.size() >= maxSize) {
+                // Still full of live tokens: skip caching rather than evicting at random.
+                return;
+            }
+        }
+        entries.put(token, claims);
+    }
+
+    void invalidate(String token) {
+        entries.remove(token);
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void purgeExpired(long nowMillis) {
+        long next = nextPurgeAt.get();
+        if (nowMillis < next || !nextPurgeAt.compareAndSet(next, nowMillis + PURGE_INTERVAL_MS)) {
+            return;
+        }
+        entries.values().removeIf(claims -> claims.isExpired(nowMillis));
+    }
+}
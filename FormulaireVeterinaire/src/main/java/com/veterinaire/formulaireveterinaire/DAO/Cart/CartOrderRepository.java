@@ -3,9 +3,60 @@ package com.veterinaire.formulaireveterinaire.DAO.Cart;
 import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
 import com.veterinaire.formulaireveterinaire.entity.CartOrder;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface CartOrderRepository extends JpaRepository<CartOrder, Long> {
+public interface CartOrderRepository extends JpaRepository<CartOrder, Long>, JpaSpecificationExecutor<CartOrder> {
     Optional<CartOrder> findByUserIdAndStatus(Long userId, OrderStatus status);
+
+    // Backed by the partial unique index ux_orders_open_cart (schema.sql): a concurrent creator
+    // waits for the winner's commit and then inserts nothing, so callers simply re-read the cart
+    @Modifying
+    @Transactional
+    @Query(value = "INSERT INTO orders (user_id, status, total_amount, updated_at) VALUES (:userId, 'CART', 0, now()) " +
+            "ON CONFLICT (user_id) WHERE status = 'CART' DO NOTHING", nativeQuery = true)
+    int insertCartIfAbsent(@Param("userId") Long userId);
+
+    // Atomic in the database: concurrent mutations of the same cart can't lose each other's delta
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CartOrder o SET o.totalAmount = COALESCE(o.totalAmount, 0) + :delta, " +
+            "o.updatedAt = CURRENT_TIMESTAMP WHERE o.id = :orderId")
+    int addToTotal(@Param("orderId") Long orderId, @Param("delta") BigDecimal delta);
+
+    // Write-behind flush: replaces the total only while the order still has the given status
+    @Modifying(flushAutomatically = true)
+    @Query("UPDATE CartOrder o SET o.totalAmount = :total, o.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE o.id = :orderId AND o.status = :status")
+    int updateTotalIfStatus(@Param("orderId") Long orderId, @Param("total") BigDecimal total,
+                            @Param("status") OrderStatus status);
+
+    // Checkout claim: only one transaction can move a cart out of CART. A second checkout of the same cart waits
+    // on the row lock, sees the winner's CONFIRMED once it commits and updates nothing
+    @Modifying(flushAutomatically = true)
+    @Query(value = "UPDATE orders SET status = 'CONFIRMED', updated_at = now() WHERE id = :orderId AND status = 'CART'",
+            nativeQuery = true)
+    int claimCart(@Param("orderId") Long orderId);
+
+    // Bulk state-machine move in one statement: only orders currently in an allowed source status change,
+    // and RETURNING tells which ones did. Callers must run it inside a read-write transaction.
+    @Query(value = "UPDATE orders SET status = :target, updated_at = now() WHERE id IN (:ids) AND status IN (:sources) " +
+            "RETURNING id AS id, user_id AS userId, order_number AS orderNumber", nativeQuery = true)
+    List<StatusTransitionRow> transitionStatus(@Param("ids") Collection<Long> ids, @Param("target") String target,
+                                               @Param("sources") Collection<String> sources);
+
+    // Next chunk of the abandoned-cart purge, keyset on id. Runs in the purge transaction: the rows stay
+    // locked until their deletion commits, and carts a request is touching right now are skipped, not waited for
+    @Query(value = "SELECT id FROM orders WHERE status = 'CART' AND updated_at < :cutoff AND id > :afterId " +
+            "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<Long> lockAbandonedCarts(@Param("afterId") Long afterId, @Param("cutoff") LocalDateTime cutoff,
+                                  @Param("limit") int limit);
 }
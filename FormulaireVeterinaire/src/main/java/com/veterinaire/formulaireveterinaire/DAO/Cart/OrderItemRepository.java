@@ -2,10 +2,33 @@ package com.veterinaire.formulaireveterinaire.DAO.Cart;
 
 import com.veterinaire.formulaireveterinaire.entity.OrderItem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.math.BigDecimal;
+import java.util.Collection;
 import java.util.List;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
     List<OrderItem> findByOrderId(Long orderId);
     void deleteByOrderId(Long orderId);
+
+    // One statement for a whole chunk of orders (deleteByOrderId loads and removes the lines one by one)
+    @Modifying
+    @Query("DELETE FROM OrderItem i WHERE i.orderId IN :orderIds")
+    int deleteAllByOrderIdIn(@Param("orderIds") Collection<Long> orderIds);
+
+    @Query("SELECT COALESCE(SUM(i.price * i.quantity), 0) FROM OrderItem i WHERE i.orderId = :orderId")
+    BigDecimal sumLineTotals(@Param("orderId") Long orderId);
+
+    // Insert-or-increment on ux_order_items_order_product (schema.sql): one line per product, the
+    // quantity is added in the database so concurrent taps can't overwrite each other. The line keeps
+    // the price it was first added at; the returned row carries the merged quantity and that price.
+    @Query(value = "INSERT INTO order_items (order_id, product_id, quantity, price) " +
+            "VALUES (:orderId, :productId, :quantity, :price) " +
+            "ON CONFLICT (order_id, product_id) DO UPDATE SET quantity = order_items.quantity + EXCLUDED.quantity " +
+            "RETURNING *", nativeQuery = true)
+    OrderItem upsertLine(@Param("orderId") Long orderId, @Param("productId") Long productId,
+                         @Param("quantity") Integer quantity, @Param("price") BigDecimal price);
 }
@@ -0,0 +1,8 @@
+package com.veterinaire.formulaireveterinaire.DAO.Cart;
+
+/** Row returned by {@link CartOrderRepository#transitionStatus}: an order that actually moved. */
+public interface StatusTransitionRow {
+    Long getId();
+    Long getUserId();
+    String getOrderNumber();
+}
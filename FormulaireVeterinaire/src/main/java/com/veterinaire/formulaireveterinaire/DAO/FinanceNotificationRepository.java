@@ -0,0 +1,23 @@
+package com.veterinaire.formulaireveterinaire.DAO;
+
+import com.veterinaire.formulaireveterinaire.entity.FinanceNotification;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface FinanceNotificationRepository extends JpaRepository<FinanceNotification, Long> {
+
+    long countByDigestedAtIsNull();
+
+    // SKIP LOCKED: two instances flushing at once split the rows instead of mailing them twice
+    @Query(value = """
+            SELECT * FROM finance_notifications
+            WHERE digested_at IS NULL
+            ORDER BY id
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<FinanceNotification> lockPending(@Param("limit") int limit);
+}
@@ -0,0 +1,23 @@
+package com.veterinaire.formulaireveterinaire.DAO.Inventory;
+
+import com.veterinaire.formulaireveterinaire.entity.StockReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StockReservationRepository extends JpaRepository<StockReservation, Long> {
+
+    // Deletes the reservations of the given orders and adds their quantities back in one statement.
+    // Products whose stock is no longer tracked keep NULL. Returns the ids of the restocked products.
+    @Query(value = "WITH released AS (DELETE FROM stock_reservations WHERE order_id IN (:orderIds) " +
+            "RETURNING product_id, quantity), " +
+            "totals AS (SELECT product_id, SUM(quantity) AS quantity FROM released GROUP BY product_id) " +
+            "UPDATE products p SET stock_quantity = p.stock_quantity + t.quantity, in_stock = TRUE " +
+            "FROM totals t WHERE p.id = t.product_id AND p.stock_quantity IS NOT NULL RETURNING p.id",
+            nativeQuery = true)
+    List<Long> releaseOrders(@Param("orderIds") Collection<Long> orderIds);
+}
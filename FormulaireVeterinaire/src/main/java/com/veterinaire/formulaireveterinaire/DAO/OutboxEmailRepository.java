@@ -0,0 +1,67 @@
+package com.veterinaire.formulaireveterinaire.DAO;
+
+import com.veterinaire.formulaireveterinaire.entity.OutboxEmail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+public interface OutboxEmailRepository extends JpaRepository<OutboxEmail, Long> {
+
+    // Due rows, plus SENDING rows whose worker lease ran out (crash, redeploy).
+    // SKIP LOCKED lets several instances poll without handing out the same row twice.
+    @Query(value = """
+            SELECT * FROM email_outbox
+            WHERE (status = 'PENDING' AND next_attempt_at <= :now)
+               OR (status = 'SENDING' AND locked_until < :now)
+            ORDER BY next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<OutboxEmail> lockDue(@Param("now") Instant now, @Param("limit") int limit);
+
+    // One email per order in a single INSERT ... SELECT (bulk status changes). Subject and body are rendered once
+    // with markers, filled in per row here; the name is HTML-escaped the same way MailTemplate escapes {{...}}.
+    // Orders whose user has no email get no row. Runs in the caller's transaction
+    @Modifying
+    @Query(value = """
+            INSERT INTO email_outbox (recipient, subject, body, status, attempts, next_attempt_at, created_at)
+            SELECT u.email,
+                   replace(:subject, :numberMarker, o.order_number),
+                   replace(replace(:body, :numberMarker, o.order_number), :nameMarker,
+                           replace(replace(replace(replace(replace(COALESCE(u.nom, :defaultName),
+                                   '&', '&amp;'), '<', '&lt;'), '>', '&gt;'), '"', '&quot;'), '''', '&#39;')),
+                   'PENDING', 0, :now, :now
+            FROM orders o
+            JOIN users u ON u.id = o.user_id
+            WHERE o.id IN (:orderIds) AND u.email IS NOT NULL
+            """, nativeQuery = true)
+    int enqueuePerOrder(@Param("orderIds") Collection<Long> orderIds, @Param("subject") String subject,
+                        @Param("body") String body, @Param("numberMarker") String numberMarker,
+                        @Param("nameMarker") String nameMarker, @Param("defaultName") String defaultName,
+                        @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEmail e SET e.status = 'SENT', e.sentAt = :now, e.body = null, " +
+            "e.attachmentContent = null, e.lockedUntil = null, e.lastError = null WHERE e.id = :id")
+    int markSent(@Param("id") Long id, @Param("now") Instant now);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE OutboxEmail e SET e.status = 'PENDING', e.nextAttemptAt = :nextAttemptAt, " +
+            "e.lockedUntil = null, e.lastError = :error WHERE e.id = :id")
+    int reschedule(@Param("id") Long id, @Param("nextAttemptAt") Instant nextAttemptAt, @Param("error") String error);
+
+    @Modifying
+    @Transactional
+    // Like markSent, drops the content (a dead welcome mail still carries a password) and keeps the error
+    @Query("UPDATE OutboxEmail e SET e.status = 'DEAD', e.body = null, e.attachmentContent = null, " +
+            "e.lockedUntil = null, e.lastError = :error WHERE e.id = :id")
+    int markDead(@Param("id") Long id, @Param("error") String error);
+}
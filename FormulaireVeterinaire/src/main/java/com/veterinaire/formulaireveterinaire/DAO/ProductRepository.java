@@ -2,10 +2,21 @@ package com.veterinaire.formulaireveterinaire.DAO;
 
 import com.veterinaire.formulaireveterinaire.entity.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import java.util.List;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
     List<Product> findByCategory(String category);
     List<Product> findBySubCategory(String subCategory);
     List<Product> findByInStock(Boolean inStock);
+
+    // Conditional decrement: 0 rows when the stock can't cover the quantity, so the database never oversells.
+    // in_stock is computed from the pre-update value (stock > quantity means something is left)
+    @Modifying
+    @Query(value = "UPDATE products SET stock_quantity = stock_quantity - :quantity, " +
+            "in_stock = stock_quantity > :quantity WHERE id = :id AND stock_quantity >= :quantity", nativeQuery = true)
+    int decrementStock(@Param("id") Long id, @Param("quantity") int quantity);
 }
@@ -0,0 +1,52 @@
+package com.veterinaire.formulaireveterinaire.DAO.Sales;
+
+import com.veterinaire.formulaireveterinaire.Enums.Category;
+import com.veterinaire.formulaireveterinaire.entity.SalesDailyRollup;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesRollupRepository extends JpaRepository<SalesDailyRollup, Long> {
+
+    // Claim and aggregate in one statement: the CTE inserts the order into sales_rollup_orders, and only a
+    // successful claim feeds its lines into the (day, product) upsert. Returns the number of rollup rows
+    // touched, 0 when the order was already counted (or is not confirmed).
+    @Modifying
+    @Query(value = "WITH claimed AS (INSERT INTO sales_rollup_orders (order_id, applied_at) " +
+            "SELECT id, now() FROM orders WHERE id = :orderId AND confirmed_at IS NOT NULL " +
+            "ON CONFLICT (order_id) DO NOTHING RETURNING order_id) " +
+            "INSERT INTO sales_daily_rollup (day, product_id, category, sub_category, quantity, revenue, order_count) " +
+            "SELECT CAST(o.confirmed_at AS date), i.product_id, p.category, p.sub_category, " +
+            "SUM(i.quantity), SUM(i.price * i.quantity), COUNT(DISTINCT o.id) " +
+            "FROM claimed c JOIN orders o ON o.id = c.order_id JOIN order_items i ON i.order_id = o.id " +
+            "JOIN products p ON p.id = i.product_id " +
+            "GROUP BY CAST(o.confirmed_at AS date), i.product_id, p.category, p.sub_category " +
+            "ON CONFLICT (day, product_id) DO UPDATE SET quantity = sales_daily_rollup.quantity + EXCLUDED.quantity, " +
+            "revenue = sales_daily_rollup.revenue + EXCLUDED.revenue, " +
+            "order_count = sales_daily_rollup.order_count + EXCLUDED.order_count", nativeQuery = true)
+    int recordOrder(@Param("orderId") Long orderId);
+
+    @Query("SELECT r.day AS day, SUM(r.quantity) AS quantity, SUM(r.revenue) AS revenue, " +
+            "SUM(r.orderCount) AS orderCount FROM SalesDailyRollup r " +
+            "WHERE r.day BETWEEN :from AND :to GROUP BY r.day ORDER BY r.day")
+    List<SalesTotalsRow> totalsByDay(@Param("from") LocalDate from, @Param("to") LocalDate to);
+
+    // orderCount is the number of orders containing the product (an order spans several products)
+    @Query("SELECT r.productId AS productId, p.name AS productName, r.category AS category, " +
+            "r.subCategory AS subCategory, SUM(r.quantity) AS quantity, SUM(r.revenue) AS revenue, " +
+            "SUM(r.orderCount) AS orderCount FROM SalesDailyRollup r LEFT JOIN Product p ON p.id = r.productId " +
+            "WHERE r.day BETWEEN :from AND :to AND (:category IS NULL OR r.category = :category) " +
+            "GROUP BY r.productId, p.name, r.category, r.subCategory ORDER BY SUM(r.revenue) DESC")
+    List<SalesTotalsRow> totalsByProduct(@Param("from") LocalDate from, @Param("to") LocalDate to,
+                                         @Param("category") Category category, Pageable limit);
+
+    @Query("SELECT r.category AS category, r.subCategory AS subCategory, SUM(r.quantity) AS quantity, " +
+            "SUM(r.revenue) AS revenue FROM SalesDailyRollup r WHERE r.day BETWEEN :from AND :to " +
+            "GROUP BY r.category, r.subCategory ORDER BY r.category, r.subCategory")
+    List<SalesTotalsRow> totalsByCategory(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
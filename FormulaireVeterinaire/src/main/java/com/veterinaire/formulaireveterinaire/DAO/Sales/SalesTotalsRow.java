@@ -0,0 +1,19 @@
+package com.veterinaire.formulaireveterinaire.DAO.Sales;
+
+import com.veterinaire.formulaireveterinaire.Enums.Category;
+import com.veterinaire.formulaireveterinaire.Enums.SubCategory;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Aggregated rollup rows; the getters a query doesn't group by return null
+public interface SalesTotalsRow {
+    LocalDate getDay();
+    Long getProductId();
+    String getProductName();
+    Category getCategory();
+    SubCategory getSubCategory();
+    Long getQuantity();
+    BigDecimal getRevenue();
+    Long getOrderCount();
+}
@@ -2,9 +2,15 @@ package com.veterinaire.formulaireveterinaire.DAO;
 
 import com.veterinaire.formulaireveterinaire.entity.Subscription;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.Optional;
 
 public interface SubscriptionRepository extends JpaRepository<Subscription, Long> {
     Optional<Subscription> findByUserEmail(String email); // Custom query method
+
+    @Query("SELECT s.endDate FROM Subscription s WHERE s.user.id = :userId")
+    Optional<LocalDateTime> findEndDateByUserId(@Param("userId") Long userId);
 }
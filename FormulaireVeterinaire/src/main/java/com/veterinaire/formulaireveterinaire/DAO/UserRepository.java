@@ -17,4 +17,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     Optional<User> findByNumMatricule(String numMatricule);
 
+    @Query("SELECT u.securityVersion FROM User u WHERE u.id = :id")
+    Optional<Integer> findSecurityVersionById(@Param("id") Long id);
+
 }
@@ -0,0 +1,15 @@
+package com.veterinaire.formulaireveterinaire.DTO.Cart;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class CartBatchRequest {
+    @NotEmpty
+    @Size(max = 200)
+    private List<@Valid CartOperationRequest> operations;
+}
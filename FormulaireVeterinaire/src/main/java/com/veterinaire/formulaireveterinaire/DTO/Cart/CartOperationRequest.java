@@ -0,0 +1,15 @@
+package com.veterinaire.formulaireveterinaire.DTO.Cart;
+
+import com.veterinaire.formulaireveterinaire.Enums.CartOperationType;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class CartOperationRequest {
+    @NotNull
+    private CartOperationType type;
+
+    private Long productId;   // ADD
+    private Long itemId;      // UPDATE, REMOVE
+    private Integer quantity; // ADD, UPDATE (<= 0 removes the line)
+}
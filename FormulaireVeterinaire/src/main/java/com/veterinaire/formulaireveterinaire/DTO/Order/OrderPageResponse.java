@@ -0,0 +1,11 @@
+package com.veterinaire.formulaireveterinaire.DTO.Order;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class OrderPageResponse {
+    private List<OrderSummaryDto> orders;
+    private String nextCursor;   // null on the last page
+}
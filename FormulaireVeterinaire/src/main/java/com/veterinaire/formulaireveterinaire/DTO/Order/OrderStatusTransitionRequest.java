@@ -0,0 +1,19 @@
+package com.veterinaire.formulaireveterinaire.DTO.Order;
+
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class OrderStatusTransitionRequest {
+    @NotEmpty
+    @Size(max = 5000)
+    private List<Long> orderIds;
+
+    @NotNull
+    private OrderStatus targetStatus;
+}
@@ -0,0 +1,13 @@
+package com.veterinaire.formulaireveterinaire.DTO.Order;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class OrderStatusTransitionResult {
+    private String targetStatus;
+    private int requested;
+    private int updated;
+    private List<Long> rejectedIds;   // unknown ids, or orders whose current status can't move to the target
+}
@@ -0,0 +1,16 @@
+package com.veterinaire.formulaireveterinaire.DTO.Order;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class OrderSummaryDto {
+    private Long id;
+    private Long userId;
+    private String orderNumber;
+    private String status;
+    private BigDecimal totalAmount;
+    private LocalDateTime confirmedAt;
+}
@@ -0,0 +1,13 @@
+package com.veterinaire.formulaireveterinaire.DTO.Sales;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class CategorySalesDto {
+    private String category;
+    private String subCategory;
+    private Long quantity;
+    private BigDecimal revenue;
+}
@@ -0,0 +1,14 @@
+package com.veterinaire.formulaireveterinaire.DTO.Sales;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Data
+public class DailySalesDto {
+    private LocalDate day;
+    private Long quantity;
+    private BigDecimal revenue;
+    private Long orderCount;
+}
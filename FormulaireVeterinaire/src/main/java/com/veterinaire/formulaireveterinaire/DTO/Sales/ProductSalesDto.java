@@ -0,0 +1,16 @@
+package com.veterinaire.formulaireveterinaire.DTO.Sales;
+
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class ProductSalesDto {
+    private Long productId;
+    private String productName;    // null once the product has been deleted
+    private String category;
+    private String subCategory;
+    private Long quantity;
+    private BigDecimal revenue;
+    private Long orderCount;       // orders that contained the product
+}
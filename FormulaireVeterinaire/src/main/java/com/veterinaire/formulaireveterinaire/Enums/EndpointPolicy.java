@@ -0,0 +1,14 @@
+package com.veterinaire.formulaireveterinaire.Enums;
+
+public enum EndpointPolicy {
+    PUBLIC,                 // no token needed
+    TOKEN_OPTIONAL,         // no token needed; a valid one is used, an invalid or expired one is ignored (logout)
+    AUTHENTICATED,          // valid token, subscription not checked
+    ADMIN,                  // valid token with the ADMIN role, subscription not checked
+    SUBSCRIPTION_REQUIRED;  // valid token and unexpired subscription (admins exempt)
+
+    /** No token needed: these paths match exactly, everything else matches as a path prefix. */
+    public boolean isOpen() {
+        return this == PUBLIC || this == TOKEN_OPTIONAL;
+    }
+}
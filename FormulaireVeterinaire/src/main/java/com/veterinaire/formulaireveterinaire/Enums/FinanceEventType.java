@@ -0,0 +1,6 @@
+package com.veterinaire.formulaireveterinaire.Enums;
+
+
+public enum FinanceEventType {
+    ORDER_CONFIRMED, SUBSCRIPTION_ASSIGNED, SUBSCRIPTION_UPDATED, SUBSCRIPTION_REQUESTED, SUBSCRIPTION_REMINDER
+}
@@ -1,6 +1,32 @@
 package com.veterinaire.formulaireveterinaire.Enums;
 
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 
 public enum OrderStatus {
-    CART, CONFIRMED, PROCESSING, SHIPPED, DELIVERED
+    CART, CONFIRMED, PROCESSING, SHIPPED, DELIVERED, CANCELLED;
+
+    // Allowed moves: CART -> CONFIRMED happens at checkout only; DELIVERED and CANCELLED are final
+    private static final Map<OrderStatus, Set<OrderStatus>> SOURCES = new EnumMap<>(OrderStatus.class);
+
+    static {
+        SOURCES.put(CART, EnumSet.noneOf(OrderStatus.class));
+        SOURCES.put(CONFIRMED, EnumSet.of(CART));
+        SOURCES.put(PROCESSING, EnumSet.of(CONFIRMED));
+        SOURCES.put(SHIPPED, EnumSet.of(PROCESSING));
+        SOURCES.put(DELIVERED, EnumSet.of(SHIPPED));
+        SOURCES.put(CANCELLED, EnumSet.of(CONFIRMED, PROCESSING));
+    }
+
+    /** Statuses an order may be in to move to this one. */
+    public Set<OrderStatus> sources() {
+        return SOURCES.get(this);
+    }
+
+    public boolean canTransitionTo(OrderStatus target) {
+        return target.sources().contains(this);
+    }
 }
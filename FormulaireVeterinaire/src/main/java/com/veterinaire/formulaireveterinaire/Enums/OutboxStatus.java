@@ -0,0 +1,6 @@
+package com.veterinaire.formulaireveterinaire.Enums;
+
+
+public enum OutboxStatus {
+    PENDING, SENDING, SENT, DEAD
+}
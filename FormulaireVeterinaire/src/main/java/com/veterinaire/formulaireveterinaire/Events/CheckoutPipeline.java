@@ -0,0 +1,156 @@
+package com.veterinaire.formulaireveterinaire.Events;
+
+import com.veterinaire.formulaireveterinaire.service.SalesRollupService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Post-commit side of checkout. Once the order is committed, the sales rollup and the analytics update run as
+ * independent stages on a small pool, each with its own retry policy
+ * ({@code checkout.pipeline.<stage>.max-attempts} / {@code backoff-ms}, doubled per attempt).
+ * A failing stage is retried on its own and can never roll back the order.
+ * <p>
+ * Meters: {@code checkout.stage.duration} (timer, by stage and result) and {@code checkout.stage.outcome}
+ * (success / retry / failed). Retries live in memory: a stage still pending at shutdown is logged, not replayed,
+ * so only work that can be lost or redone belongs here (lost rollups are redone by the one-off backfill in
+ * schema.sql, see the comment there). The confirmation email and the finance record are written in the checkout
+ * transaction itself (outbox rows), not as stages.
+ */
+@Component
+public class CheckoutPipeline {
+    private static final Logger logger = LoggerFactory.getLogger(CheckoutPipeline.class);
+
+    private static final long MAX_BACKOFF_MS = 300_000;
+
+    private record Stage(String name, int maxAttempts, long backoffMs, Consumer<OrderConfirmedEvent> action) {}
+
+    private final SalesRollupService salesRollups;
+    private final MeterRegistry meterRegistry;
+
+    private final ScheduledThreadPoolExecutor executor;
+    private final Counter ordersConfirmed;
+    private final DistributionSummary orderAmounts;
+    private List<Stage> stages;
+
+    @Value("${checkout.pipeline.rollup.max-attempts:5}")
+    private int rollupMaxAttempts;
+
+    @Value("${checkout.pipeline.rollup.backoff-ms:2000}")
+    private long rollupBackoffMs;
+
+    @Value("${checkout.pipeline.analytics.max-attempts:1}")
+    private int analyticsMaxAttempts;
+
+    public CheckoutPipeline(SalesRollupService salesRollups, MeterRegistry meterRegistry,
+                            @Value("${checkout.pipeline.threads:2}") int threads) {
+        this.salesRollups = salesRollups;
+        this.meterRegistry = meterRegistry;
+
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ScheduledThreadPoolExecutor(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "checkout-pipeline-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        this.ordersConfirmed = Counter.builder("orders.confirmed").register(meterRegistry);
+        this.orderAmounts = DistributionSummary.builder("orders.amount").baseUnit("TND").register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void init() {
+        stages = List.of(
+                new Stage("rollup", rollupMaxAttempts, rollupBackoffMs, this::updateSalesRollup),
+                new Stage("analytics", analyticsMaxAttempts, 0, this::recordAnalytics));
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void onOrderConfirmed(OrderConfirmedEvent event) {
+        for (Stage stage : stages) {
+            schedule(stage, event, 1, 0);
+        }
+    }
+
+    private void schedule(Stage stage, OrderConfirmedEvent event, int attempt, long delayMs) {
+        try {
+            executor.schedule(() -> run(stage, event, attempt), delayMs, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException e) {
+            outcome(stage, "failed");
+            logger.error("Checkout stage {} for order {} dropped, pipeline shut down", stage.name(), event.orderNumber());
+        }
+    }
+
+    private void run(Stage stage, OrderConfirmedEvent event, int attempt) {
+        long start = System.nanoTime();
+        try {
+            stage.action().accept(event);
+            record(stage, "success", start);
+        } catch (RuntimeException e) {
+            if (attempt < stage.maxAttempts()) {
+                record(stage, "retry", start);
+                long delay = Math.min(MAX_BACKOFF_MS, stage.backoffMs() << (attempt - 1));
+                logger.warn("Checkout stage {} for order {} failed (attempt {}/{}), retry in {} ms: {}",
+                        stage.name(), event.orderNumber(), attempt, stage.maxAttempts(), delay, e.getMessage());
+                schedule(stage, event, attempt + 1, delay);
+            } else {
+                record(stage, "failed", start);
+                logger.error("Checkout stage {} for order {} gave up after {} attempts", stage.name(),
+                        event.orderNumber(), attempt, e);
+            }
+        }
+    }
+
+    private void record(Stage stage, String result, long startNanos) {
+        Timer.builder("checkout.stage.duration").tag("stage", stage.name()).tag("result", result)
+                .register(meterRegistry).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        outcome(stage, result);
+    }
+
+    private void outcome(Stage stage, String result) {
+        meterRegistry.counter("checkout.stage.outcome", "stage", stage.name(), "result", result).increment();
+    }
+
+    // --- Stages ---
+
+    // Idempotent on the order id, so a retry after a commit whose acknowledgement was lost counts nothing twice
+    void updateSalesRollup(OrderConfirmedEvent event) {
+        if (!salesRollups.recordOrder(event.orderId())) {
+            logger.debug("Order {} already in the sales rollups", event.orderNumber());
+        }
+    }
+
+    void recordAnalytics(OrderConfirmedEvent event) {
+        ordersConfirmed.increment();
+        orderAmounts.record(event.totalAmount().doubleValue());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Checkout pipeline stopped with {} stages pending", executor.shutdownNow().size());
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
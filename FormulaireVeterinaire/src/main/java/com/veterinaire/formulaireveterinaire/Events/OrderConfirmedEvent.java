@@ -0,0 +1,11 @@
+package com.veterinaire.formulaireveterinaire.Events;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published by checkout inside its transaction; {@link CheckoutPipeline} picks it up once the order is committed
+ * for the sales rollup and analytics.
+ */
+public record OrderConfirmedEvent(Long orderId, Long userId, String orderNumber, BigDecimal totalAmount,
+                                  LocalDateTime confirmedAt) {}
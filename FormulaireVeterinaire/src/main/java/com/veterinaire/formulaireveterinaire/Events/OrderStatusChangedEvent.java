@@ -0,0 +1,14 @@
+package com.veterinaire.formulaireveterinaire.Events;
+
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+
+import java.util.List;
+
+/**
+ * Published by a bulk status transition inside its transaction; listeners ({@link OrderStatusNotifier}, stock
+ * release on cancel) run in that same transaction.
+ */
+public record OrderStatusChangedEvent(OrderStatus status, List<Change> orders) {
+
+    public record Change(Long orderId, Long userId, String orderNumber) {}
+}
@@ -0,0 +1,88 @@
+package com.veterinaire.formulaireveterinaire.Events;
+
+import com.veterinaire.formulaireveterinaire.DAO.OutboxEmailRepository;
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+import com.veterinaire.formulaireveterinaire.Mail.MailTemplateRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Customer emails for bulk status transitions, written to the outbox inside the transition's transaction: the
+ * emails are committed with the new statuses or not at all, and the outbox dispatcher does the sending.
+ * Works in chunks of {@code orders.status-notification.batch-size} orders, one {@code INSERT ... SELECT} per chunk
+ * (joined to {@code users}), with the template rendered once per transition instead of once per order.
+ */
+@Component
+public class OrderStatusNotifier {
+    private static final Logger logger = LoggerFactory.getLogger(OrderStatusNotifier.class);
+
+    private static final Map<OrderStatus, String> LABELS = Map.of(
+            OrderStatus.CONFIRMED, "confirmée",
+            OrderStatus.PROCESSING, "en cours de préparation",
+            OrderStatus.SHIPPED, "expédiée",
+            OrderStatus.DELIVERED, "livrée",
+            OrderStatus.CANCELLED, "annulée");
+
+    // Filled in per row by the INSERT; neither is changed by HTML escaping
+    static final String NAME_MARKER = "@@nom@@";
+    static final String NUMBER_MARKER = "@@orderNumber@@";
+
+    private final OutboxEmailRepository outboxRepository;
+    private final MailTemplateRegistry mailTemplates;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${orders.status-notification.batch-size:200}")
+    private int batchSize;
+
+    public OrderStatusNotifier(OutboxEmailRepository outboxRepository, MailTemplateRegistry mailTemplates,
+                               MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.mailTemplates = mailTemplates;
+        this.meterRegistry = meterRegistry;
+    }
+
+    // Runs inside the status transition's transaction; a failure rolls the transition back with it
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        List<Long> orderIds = event.orders().stream().map(OrderStatusChangedEvent.Change::orderId).toList();
+        if (orderIds.isEmpty()) {
+            return;
+        }
+
+        String label = LABELS.getOrDefault(event.status(), event.status().name());
+        String subject = "Commande " + NUMBER_MARKER + " " + label + " – VITALFEED";
+        String body = mailTemplates.render("order-status", Map.of(
+                "nom", NAME_MARKER,
+                "orderNumber", NUMBER_MARKER,
+                "status", label,
+                "year", LocalDate.now().getYear()
+        ));
+        Instant now = Instant.now();
+
+        int queued = 0;
+        for (int from = 0; from < orderIds.size(); from += batchSize) {
+            List<Long> chunk = orderIds.subList(from, Math.min(from + batchSize, orderIds.size()));
+            queued += outboxRepository.enqueuePerOrder(chunk, subject, body, NUMBER_MARKER, NAME_MARKER,
+                    "Cher client", now);
+        }
+
+        meterRegistry.counter("orders.status.notifications", "status", event.status().name(), "result", "queued")
+                .increment(queued);
+        if (queued < orderIds.size()) {
+            meterRegistry.counter("orders.status.notifications", "status", event.status().name(), "result", "no-recipient")
+                    .increment(orderIds.size() - queued);
+            logger.warn("{} of {} orders moved to {} have no recipient email", orderIds.size() - queued,
+                    orderIds.size(), event.status());
+        }
+        logger.info("{} status emails ({}) queued in the outbox", queued, event.status());
+    }
+}
@@ -0,0 +1,145 @@
+package com.veterinaire.formulaireveterinaire.Mail;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An HTML mail template parsed once into literal segments and typed placeholders.
+ * <p>
+ * Placeholder syntax: {@code {{name}}} (HTML-escaped text), {@code {{name|raw}}} (inserted as is),
+ * {@code {{name|money}}} (BigDecimal, 2 decimals, HALF_UP) and {@code {{name|datetime}}} (dd/MM/yyyy HH:mm).
+ */
+public final class MailTemplate {
+
+    private enum Kind { LITERAL, TEXT, RAW, MONEY, DATETIME }
+
+    private record Segment(Kind kind, String value) {}   // value: literal text or placeholder name
+
+    private final String name;
+    private final Segment[] segments;
+
+    private MailTemplate(String name, Segment[] segments) {
+        this.name = name;
+        this.segments = segments;
+    }
+
+    public static MailTemplate parse(String name, String source) {
+        List<Segment> segments = new ArrayList<>();
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf("{{", position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalStateException("Template " + name + ": unclosed placeholder at offset " + open);
+            }
+            if (open > position) {
+                segments.add(new Segment(Kind.LITERAL, source.substring(position, open)));
+            }
+            segments.add(placeholder(name, source.substring(open + 2, close).trim()));
+            position = close + 2;
+        }
+        if (position < source.length()) {
+            segments.add(new Segment(Kind.LITERAL, source.substring(position)));
+        }
+        return new MailTemplate(name, segments.toArray(new Segment[0]));
+    }
+
+    private static Segment placeholder(String template, String expression) {
+        int pipe = expression.indexOf('|');
+        if (pipe < 0) {
+            return new Segment(Kind.TEXT, expression);
+        }
+        String variable = expression.substring(0, pipe).trim();
+        Kind kind = switch (expression.substring(pipe + 1).trim()) {
+            case "raw" -> Kind.RAW;
+            case "money" -> Kind.MONEY;
+            case "datetime" -> Kind.DATETIME;
+            default -> throw new IllegalStateException("Template " + template + ": unknown format in {{" + expression + "}}");
+        };
+        return new Segment(kind, variable);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void renderTo(StringBuilder out, Map<String, ?> model) {
+        for (Segment segment : segments) {
+            if (segment.kind() == Kind.LITERAL) {
+                out.append(segment.value());
+                continue;
+            }
+            Object value = model.get(segment.value());
+            if (value == null) {
+                throw new IllegalArgumentException("Template " + name + ": no value for {{" + segment.value() + "}}");
+            }
+            switch (segment.kind()) {
+                case TEXT -> appendEscaped(out, value);
+                case RAW -> out.append(value instanceof CharSequence text ? text : String.valueOf(value));
+                case MONEY -> appendMoney(out, (BigDecimal) value);
+                case DATETIME -> appendDateTime(out, (LocalDateTime) value);
+                default -> throw new IllegalStateException();
+            }
+        }
+    }
+
+    private static void appendEscaped(StringBuilder out, Object value) {
+        if (value instanceof Number number) {
+            out.append(number);
+            return;
+        }
+        CharSequence text = value instanceof CharSequence sequence ? sequence : String.valueOf(value);
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '&' -> out.append("&amp;");
+                case '<' -> out.append("&lt;");
+                case '>' -> out.append("&gt;");
+                case '"' -> out.append("&quot;");
+                case '\'' -> out.append("&#39;");
+                default -> out.append(c);
+            }
+        }
+    }
+
+    /**
+     * Two decimals, HALF_UP, always with a '.' separator whatever the JVM locale (the former
+     * {@code String.format("%.2f")} printed "12,50" under a French default locale), without the Formatter machinery.
+     */
+    static void appendMoney(StringBuilder out, BigDecimal amount) {
+        BigDecimal scaled = amount.setScale(2, RoundingMode.HALF_UP);
+        if (scaled.precision() > 18) {
+            out.append(scaled.toPlainString());
+            return;
+        }
+        long cents = scaled.unscaledValue().longValue();
+        if (cents < 0) {
+            out.append('-');
+            cents = -cents;
+        }
+        out.append(cents / 100).append('.');
+        appendTwoDigits(out, (int) (cents % 100));
+    }
+
+    /** dd/MM/yyyy HH:mm */
+    static void appendDateTime(StringBuilder out, LocalDateTime dateTime) {
+        appendTwoDigits(out, dateTime.getDayOfMonth());
+        out.append('/');
+        appendTwoDigits(out, dateTime.getMonthValue());
+        out.append('/').append(dateTime.getYear()).append(' ');
+        appendTwoDigits(out, dateTime.getHour());
+        out.append(':');
+        appendTwoDigits(out, dateTime.getMinute());
+    }
+
+    private static void appendTwoDigits(StringBuilder out, int value) {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
@@ -0,0 +1,71 @@
+package com.veterinaire.formulaireveterinaire.Mail;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Loads {@code classpath:templates/mail/*.html} once at startup and renders them into a per-thread buffer,
+ * so a reminder batch does not re-parse or re-allocate multi-kilobyte templates for every message.
+ */
+@Component
+public class MailTemplateRegistry {
+    private static final Logger logger = LoggerFactory.getLogger(MailTemplateRegistry.class);
+
+    private static final String LOCATION = "classpath:templates/mail/*.html";
+    private static final int MAX_RETAINED_BUFFER = 64 * 1024;
+
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(8 * 1024));
+
+    private final Map<String, MailTemplate> templates = new HashMap<>();
+
+    @PostConstruct
+    public void load() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(LOCATION);
+        for (Resource resource : resources) {
+            String filename = resource.getFilename();
+            if (filename == null) {
+                continue;
+            }
+            String name = filename.substring(0, filename.length() - ".html".length());
+            try (InputStream in = resource.getInputStream()) {
+                templates.put(name, MailTemplate.parse(name, new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+            }
+        }
+        logger.info("Loaded {} mail templates: {}", templates.size(), templates.keySet());
+    }
+
+    public MailTemplate get(String name) {
+        MailTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Unknown mail template: " + name);
+        }
+        return template;
+    }
+
+    public String render(String name, Map<String, ?> model) {
+        MailTemplate template = get(name);
+        StringBuilder buffer = BUFFER.get();
+        buffer.setLength(0);
+        template.renderTo(buffer, model);
+        String html = buffer.toString();
+        if (buffer.capacity() > MAX_RETAINED_BUFFER) {
+            BUFFER.remove();  // don't keep an oversized buffer alive on a pooled thread
+        }
+        return html;
+    }
+
+    /** Appends a template to a caller-owned buffer, e.g. repeated rows later passed as a {@code |raw} value. */
+    public void renderTo(StringBuilder out, String name, Map<String, ?> model) {
+        get(name).renderTo(out, model);
+    }
+}
@@ -0,0 +1,193 @@
+package com.veterinaire.formulaireveterinaire.Mail;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps authenticated SMTP connections open between sends, so a batch pays one STARTTLS + AUTH handshake
+ * per connection instead of one per message (which is what {@code JavaMailSender.send} does).
+ * <p>
+ * At most {@code mail.smtp-pool.max-connections} connections are in use at once. A connection is recycled
+ * after {@code max-messages-per-connection} messages or when it has been idle longer than the server keeps it.
+ * Within a batch each message succeeds or fails on its own; a dropped connection is reopened once.
+ */
+@Component
+public class SmtpTransportPool {
+    private static final Logger logger = LoggerFactory.getLogger(SmtpTransportPool.class);
+
+    private static final class PooledTransport {
+        final Transport transport;
+        int messagesSent;
+        long lastUsedAt;
+
+        PooledTransport(Transport transport) {
+            this.transport = transport;
+            this.lastUsedAt = System.currentTimeMillis();
+        }
+    }
+
+    private final JavaMailSenderImpl mailSender;
+    private final Semaphore connectionPermits;
+    private final LinkedBlockingDeque<PooledTransport> idle = new LinkedBlockingDeque<>();
+
+    private final Counter sent;
+    private final Counter failed;
+    private final Counter handshakes;
+    private final Timer batchTimer;
+
+    @Value("${mail.smtp-pool.max-messages-per-connection:90}")
+    private int maxMessagesPerConnection;
+
+    @Value("${mail.smtp-pool.idle-timeout-ms:60000}")
+    private long idleTimeoutMs;
+
+    public SmtpTransportPool(JavaMailSenderImpl mailSender, MeterRegistry meterRegistry,
+                             @Value("${mail.smtp-pool.max-connections:3}") int maxConnections) {
+        this.mailSender = mailSender;
+        this.connectionPermits = new Semaphore(maxConnections);
+        this.sent = Counter.builder("mail.smtp.messages").tag("result", "sent").register(meterRegistry);
+        this.failed = Counter.builder("mail.smtp.messages").tag("result", "failed").register(meterRegistry);
+        this.handshakes = Counter.builder("mail.smtp.handshakes").register(meterRegistry);
+        this.batchTimer = Timer.builder("mail.smtp.batch").register(meterRegistry);
+    }
+
+    /**
+     * Sends the messages over a single pooled connection, blocking while all connections are busy.
+     *
+     * @return one entry per message, in order: null when sent, otherwise the failure
+     */
+    public List<Exception> sendBatch(List<MimeMessage> messages) {
+        List<Exception> results = new ArrayList<>(messages.size());
+        if (messages.isEmpty()) {
+            return results;
+        }
+
+        connectionPermits.acquireUninterruptibly();
+        long start = System.nanoTime();
+        PooledTransport connection = null;
+        try {
+            for (MimeMessage message : messages) {
+                try {
+                    if (connection == null) {
+                        connection = borrow();
+                    }
+                    connection = send(connection, message);
+                    results.add(null);
+                    sent.increment();
+                } catch (MessagingException | RuntimeException e) {
+                    results.add(e);
+                    failed.increment();
+                    if (connection != null && !connection.transport.isConnected()) {
+                        close(connection);
+                        connection = null;
+                    }
+                }
+            }
+        } finally {
+            if (connection != null) {
+                release(connection);
+            }
+            connectionPermits.release();
+            batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+        return results;
+    }
+
+    /** @return the connection to keep using, or null once it has been retired */
+    private PooledTransport send(PooledTransport connection, MimeMessage message) throws MessagingException {
+        message.saveChanges();
+        try {
+            connection.transport.sendMessage(message, message.getAllRecipients());
+        } catch (MessagingException e) {
+            if (connection.transport.isConnected()) {
+                throw e;   // rejected by the server (bad recipient, ...): the connection is still good
+            }
+            // Server closed the connection (timeout, limit reached): reopen once and retry this message
+            close(connection);
+            connection = open();
+            try {
+                connection.transport.sendMessage(message, message.getAllRecipients());
+            } catch (MessagingException retryFailure) {
+                close(connection);   // the caller only holds the old, closed connection: don't leak this one
+                throw retryFailure;
+            }
+        }
+        connection.messagesSent++;
+        connection.lastUsedAt = System.currentTimeMillis();
+        if (connection.messagesSent >= maxMessagesPerConnection) {
+            close(connection);   // servers cap messages per session; the next message opens a fresh one
+            return null;
+        }
+        return connection;
+    }
+
+    private PooledTransport borrow() throws MessagingException {
+        PooledTransport connection;
+        long now = System.currentTimeMillis();
+        while ((connection = idle.pollFirst()) != null) {
+            if (now - connection.lastUsedAt < idleTimeoutMs && connection.transport.isConnected()) {
+                return connection;
+            }
+            close(connection);
+        }
+        return open();
+    }
+
+    private PooledTransport open() throws MessagingException {
+        Session session = mailSender.getSession();
+        String protocol = mailSender.getProtocol();
+        if (protocol == null) {
+            // same fallback as JavaMailSenderImpl
+            protocol = session.getProperty("mail.transport.protocol");
+            if (protocol == null) {
+                protocol = JavaMailSenderImpl.DEFAULT_PROTOCOL;
+            }
+        }
+        Transport transport = session.getTransport(protocol);
+        transport.connect(mailSender.getHost(), mailSender.getPort(), mailSender.getUsername(), mailSender.getPassword());
+        handshakes.increment();
+        logger.debug("Opened SMTP connection to {}", mailSender.getHost());
+        return new PooledTransport(transport);
+    }
+
+    private void release(PooledTransport connection) {
+        if (connection.transport.isConnected()) {
+            idle.offerFirst(connection);   // most recently used first, older ones age out
+        } else {
+            close(connection);
+        }
+    }
+
+    private static void close(PooledTransport connection) {
+        try {
+            connection.transport.close();
+        } catch (MessagingException e) {
+            logger.debug("Error closing SMTP connection: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        PooledTransport connection;
+        while ((connection = idle.pollFirst()) != null) {
+            close(connection);
+        }
+    }
+}
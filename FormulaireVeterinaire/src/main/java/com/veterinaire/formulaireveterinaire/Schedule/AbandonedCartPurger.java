@@ -0,0 +1,103 @@
+package com.veterinaire.formulaireveterinaire.Schedule;
+
+import com.veterinaire.formulaireveterinaire.DAO.Cart.CartOrderRepository;
+import com.veterinaire.formulaireveterinaire.DAO.Cart.OrderItemRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Deletes carts (and their lines) left untouched for {@code cart.purge.idle-days}.
+ * Works in chunks of {@code cart.purge.batch-size} carts, each chunk its own short transaction, walking the
+ * open carts by id so a run never rescans what it already handled and never holds locks on the whole set.
+ * Reclaimed rows are logged per run and counted in {@code cart.purge.rows} (by table).
+ */
+@Component
+@ConditionalOnProperty(name = "cart.purge.enabled", havingValue = "true", matchIfMissing = true)
+public class AbandonedCartPurger {
+    private static final Logger logger = LoggerFactory.getLogger(AbandonedCartPurger.class);
+
+    public record PurgeReport(int carts, long items, int chunks) {}
+
+    private record Chunk(Long lastId, int carts, int items) {}
+
+    private final CartOrderRepository cartOrderRepo;
+    private final OrderItemRepository itemRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter purgedCarts;
+    private final Counter purgedItems;
+
+    @Value("${cart.purge.idle-days:30}")
+    private int idleDays;
+
+    @Value("${cart.purge.batch-size:500}")
+    private int batchSize;
+
+    public AbandonedCartPurger(CartOrderRepository cartOrderRepo, OrderItemRepository itemRepo,
+                               PlatformTransactionManager transactionManager, MeterRegistry meterRegistry) {
+        this.cartOrderRepo = cartOrderRepo;
+        this.itemRepo = itemRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purgedCarts = Counter.builder("cart.purge.rows").tag("table", "orders").register(meterRegistry);
+        this.purgedItems = Counter.builder("cart.purge.rows").tag("table", "order_items").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${cart.purge.cron:0 30 3 * * *}")
+    public void purgeAbandonedCarts() {
+        PurgeReport report = purge(LocalDateTime.now().minusDays(idleDays));
+        if (report.carts() > 0) {
+            logger.info("Abandoned cart purge: {} carts and {} cart lines removed in {} chunks (idle > {} days)",
+                    report.carts(), report.items(), report.chunks(), idleDays);
+        } else {
+            logger.debug("Abandoned cart purge: nothing idle for more than {} days", idleDays);
+        }
+    }
+
+    PurgeReport purge(LocalDateTime cutoff) {
+        long afterId = 0;
+        int carts = 0;
+        long items = 0;
+        int chunks = 0;
+
+        while (true) {
+            final long from = afterId;
+            Chunk chunk = transactionTemplate.execute(status -> purgeChunk(from, cutoff));
+            if (chunk == null) {
+                break;
+            }
+            chunks++;
+            carts += chunk.carts();
+            items += chunk.items();
+            purgedCarts.increment(chunk.carts());
+            purgedItems.increment(chunk.items());
+            afterId = chunk.lastId();
+            // A short chunk normally means we reached the end. It can also come from SKIP LOCKED passing over
+            // carts being checked out or edited right now: the run then stops early, and whatever was left
+            // beyond this chunk is picked up by the next night's run
+            if (chunk.carts() < batchSize) {
+                break;
+            }
+        }
+        return new PurgeReport(carts, items, chunks);
+    }
+
+    private Chunk purgeChunk(long afterId, LocalDateTime cutoff) {
+        List<Long> ids = cartOrderRepo.lockAbandonedCarts(afterId, cutoff, batchSize);
+        if (ids.isEmpty()) {
+            return null;
+        }
+        int items = itemRepo.deleteAllByOrderIdIn(ids);
+        cartOrderRepo.deleteAllByIdInBatch(ids);
+        return new Chunk(ids.get(ids.size() - 1), ids.size(), items);
+    }
+}
@@ -0,0 +1,206 @@
+package com.veterinaire.formulaireveterinaire.Schedule;
+
+import com.veterinaire.formulaireveterinaire.DAO.OutboxEmailRepository;
+import com.veterinaire.formulaireveterinaire.Enums.OutboxStatus;
+import com.veterinaire.formulaireveterinaire.Mail.SmtpTransportPool;
+import com.veterinaire.formulaireveterinaire.entity.OutboxEmail;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.mail.MessagingException;
+import jakarta.mail.internet.MimeMessage;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drains the {@code email_outbox} table on a small worker pool, outside any request or business transaction.
+ * Each worker sends a chunk of up to {@code mail.outbox.batch-size} messages over one pooled SMTP connection.
+ * Rows are claimed with a lease (SKIP LOCKED), failures are retried with exponential backoff and jitter,
+ * and a message that keeps failing is parked as DEAD instead of blocking the queue (its content is dropped,
+ * the last error is kept).
+ */
+@Component
+public class EmailOutboxDispatcher {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxDispatcher.class);
+
+    private final OutboxEmailRepository outboxRepository;
+    private final JavaMailSender mailSender;
+    private final SmtpTransportPool transportPool;
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor workers;
+    private final Semaphore freeWorkers;
+
+    private final Counter sent;
+    private final Counter retried;
+    private final Counter dead;
+
+    @Value("${sender.email}")
+    private String senderEmail;
+
+    @Value("${mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${mail.outbox.max-attempts:8}")
+    private int maxAttempts;
+
+    @Value("${mail.outbox.backoff-initial-ms:30000}")
+    private long backoffInitialMs;
+
+    @Value("${mail.outbox.backoff-max-ms:3600000}")
+    private long backoffMaxMs;
+
+    @Value("${mail.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    public EmailOutboxDispatcher(OutboxEmailRepository outboxRepository, JavaMailSender mailSender,
+                                 SmtpTransportPool transportPool,
+                                 PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                                 @Value("${mail.outbox.workers:3}") int workerCount) {
+        this.outboxRepository = outboxRepository;
+        this.mailSender = mailSender;
+        this.transportPool = transportPool;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.freeWorkers = new Semaphore(workerCount);
+
+        AtomicInteger counter = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "mail-outbox-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+
+        this.sent = Counter.builder("mail.outbox.sent").register(meterRegistry);
+        this.retried = Counter.builder("mail.outbox.retried").register(meterRegistry);
+        this.dead = Counter.builder("mail.outbox.dead").register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${mail.outbox.poll-interval-ms:2000}")
+    public void poll() {
+        // Only claim what the pool can start right away, so the shared scheduler thread never waits on SMTP.
+        // Each worker sends its chunk over one pooled SMTP connection.
+        int freeCount = freeWorkers.availablePermits();
+        if (freeCount == 0) {
+            return;
+        }
+
+        List<OutboxEmail> claimed = claim(freeCount * batchSize);
+        for (int from = 0; from < claimed.size(); from += batchSize) {
+            List<OutboxEmail> chunk = claimed.subList(from, Math.min(from + batchSize, claimed.size()));
+            freeWorkers.acquireUninterruptibly();
+            try {
+                workers.execute(() -> {
+                    try {
+                        deliver(chunk);
+                    } finally {
+                        freeWorkers.release();
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                freeWorkers.release();
+                logger.warn("Outbox worker pool shut down, {} emails left for the next lease", chunk.size());
+            }
+        }
+    }
+
+    private List<OutboxEmail> claim(int limit) {
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OutboxEmail> due = outboxRepository.lockDue(now, limit);
+            for (OutboxEmail email : due) {
+                email.setStatus(OutboxStatus.SENDING);
+                email.setLockedUntil(now.plusMillis(leaseMs));
+                email.setAttempts(email.getAttempts() + 1);
+            }
+            return due;
+        });
+    }
+
+    private void deliver(List<OutboxEmail> chunk) {
+        List<OutboxEmail> emails = new ArrayList<>(chunk.size());
+        List<MimeMessage> messages = new ArrayList<>(chunk.size());
+        for (OutboxEmail email : chunk) {
+            try {
+                messages.add(toMimeMessage(email));
+                emails.add(email);
+            } catch (MessagingException | RuntimeException e) {
+                failed(email, e);   // malformed address etc.: no point opening a connection for it
+            }
+        }
+
+        List<Exception> results = transportPool.sendBatch(messages);
+        for (int i = 0; i < emails.size(); i++) {
+            OutboxEmail email = emails.get(i);
+            Exception error = results.get(i);
+            if (error == null) {
+                outboxRepository.markSent(email.getId(), Instant.now());
+                sent.increment();
+                logger.info("Outbox email ID {} sent to {}", email.getId(), email.getRecipient());
+            } else {
+                failed(email, error);
+            }
+        }
+    }
+
+    private MimeMessage toMimeMessage(OutboxEmail email) throws MessagingException {
+        MimeMessage message = mailSender.createMimeMessage();
+        MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+        helper.setFrom(senderEmail);
+        helper.setTo(email.getRecipient());
+        if (email.getCc() != null) {
+            helper.setCc(email.getCc());
+        }
+        helper.setSubject(email.getSubject());
+        helper.setText(email.getBody(), true);
+        if (email.getAttachmentContent() != null) {
+            helper.addAttachment(email.getAttachmentName(), new ByteArrayResource(email.getAttachmentContent()),
+                    email.getAttachmentContentType());
+        }
+        return message;
+    }
+
+    private void failed(OutboxEmail email, Exception e) {
+        String error = truncate(e.getClass().getSimpleName() + ": " + e.getMessage());
+        if (email.getAttempts() >= maxAttempts) {
+            outboxRepository.markDead(email.getId(), error);
+            dead.increment();
+            logger.error("Outbox email ID {} to {} dead after {} attempts: {}",
+                    email.getId(), email.getRecipient(), email.getAttempts(), error);
+            return;
+        }
+
+        long delay = backoffInitialMs << Math.min(email.getAttempts() - 1, 20);
+        delay = Math.min(delay, backoffMaxMs);
+        delay += ThreadLocalRandom.current().nextLong(delay / 5 + 1); // jitter, so a failing SMTP is not hammered in sync
+        outboxRepository.reschedule(email.getId(), Instant.now().plusMillis(delay), error);
+        retried.increment();
+        logger.warn("Outbox email ID {} to {} failed (attempt {}), retry in {} s: {}",
+                email.getId(), email.getRecipient(), email.getAttempts(), delay / 1000, error);
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= 1000 ? value : value.substring(0, 1000);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // Anything still in flight is picked up again once its lease expires
+        workers.shutdown();
+        workers.awaitTermination(10, TimeUnit.SECONDS);
+    }
+}
@@ -0,0 +1,58 @@
+package com.veterinaire.formulaireveterinaire.Schedule;
+
+import com.veterinaire.formulaireveterinaire.DAO.FinanceNotificationRepository;
+import com.veterinaire.formulaireveterinaire.service.FinanceNotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConditionalOnProperty(name = "finance.digest.enabled", havingValue = "true")
+public class FinanceDigestScheduler {
+
+    private final FinanceNotificationService financeNotificationService;
+    private final FinanceNotificationRepository notificationRepository;
+    private static final Logger logger = LoggerFactory.getLogger(FinanceDigestScheduler.class);
+
+    @Value("${finance.digest.threshold:200}")
+    private long threshold;
+
+    @Value("${finance.digest.max-rows:1000}")
+    private int maxRows;
+
+    public FinanceDigestScheduler(FinanceNotificationService financeNotificationService,
+                                  FinanceNotificationRepository notificationRepository) {
+        this.financeNotificationService = financeNotificationService;
+        this.notificationRepository = notificationRepository;
+    }
+
+    @Scheduled(cron = "${finance.digest.cron:0 0 8,13,18 * * *}")
+    public void sendScheduledDigest() {
+        flush();
+    }
+
+    // Peak days: don't let the queue grow until the next scheduled digest
+    @Scheduled(fixedDelayString = "${finance.digest.threshold-check-ms:60000}")
+    public void sendDigestIfThresholdReached() {
+        long pending = notificationRepository.countByDigestedAtIsNull();
+        if (pending >= threshold) {
+            logger.info("{} finance notifications pending (threshold {}), sending digest early", pending, threshold);
+            flush();
+        }
+    }
+
+    private void flush() {
+        int total = 0;
+        int sent;
+        do {
+            sent = financeNotificationService.flushDigest();
+            total += sent;
+        } while (sent == maxRows);
+        if (total > 0) {
+            logger.info("Finance digest: {} notifications sent", total);
+        }
+    }
+}
@@ -1,25 +1,24 @@
 package com.veterinaire.formulaireveterinaire.Schedule;
 
+import com.veterinaire.formulaireveterinaire.Enums.FinanceEventType;
 import com.veterinaire.formulaireveterinaire.Enums.SubscriptionStatus;
 import com.veterinaire.formulaireveterinaire.DAO.SubscriptionRepository;
 import com.veterinaire.formulaireveterinaire.DAO.UserRepository;
 import com.veterinaire.formulaireveterinaire.entity.Subscription;
 import com.veterinaire.formulaireveterinaire.entity.User;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import com.veterinaire.formulaireveterinaire.Mail.MailTemplateRegistry;
+import com.veterinaire.formulaireveterinaire.service.EmailOutboxService;
+import com.veterinaire.formulaireveterinaire.service.FinanceNotificationService;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
 
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 
 @Component
@@ -27,22 +26,25 @@ public class ReminderScheduler {
 
     private final SubscriptionRepository subscriptionRepository;
     private final UserRepository userRepository;
-    private final JavaMailSender mailSender;
+    private final EmailOutboxService emailOutbox;
+    private final MailTemplateRegistry mailTemplates;
+    private final FinanceNotificationService financeNotifications;
 
     private static final Logger logger = LoggerFactory.getLogger(ReminderScheduler.class);
 
     // In-memory Set to track subscriptions for which reminders have been sent
     private final Set<Long> sentReminderIds = new HashSet<>();
 
-    public ReminderScheduler(SubscriptionRepository subscriptionRepository, UserRepository userRepository, JavaMailSender mailSender) {
+    public ReminderScheduler(SubscriptionRepository subscriptionRepository, UserRepository userRepository,
+                             EmailOutboxService emailOutbox, MailTemplateRegistry mailTemplates,
+                             FinanceNotificationService financeNotifications) {
         this.subscriptionRepository = subscriptionRepository;
         this.userRepository = userRepository;
-        this.mailSender = mailSender;
+        this.emailOutbox = emailOutbox;
+        this.mailTemplates = mailTemplates;
+        this.financeNotifications = financeNotifications;
     }
 
-    @Value("${finance.email}")
-    private String financeEmail;
-
    // @Scheduled(cron = "0 * * * * *") // Run every minute (for testing)
     @Scheduled(cron = "0 0 0 * * *") // Run daily at midnight
     public void checkExpiredSubscriptions() {
@@ -94,90 +96,15 @@ public class ReminderScheduler {
     }
 
     private void sendReminderEmail(String email, String prenom, Long subscriptionId, LocalDateTime endDate) {
-        MimeMessage message = mailSender.createMimeMessage();
-        try {
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setTo(email);
-            helper.setCc(financeEmail);
-            helper.setSubject("🔔 Rappel : Votre abonnement arrive à expiration");
-            helper.setFrom("damino.awadi@gmail.com");
-
-            String htmlContent = """
-            <!DOCTYPE html>
-            <html lang="fr">
-            <head>
-                <meta charset="UTF-8">
-                <style>
-                    body {
-                        font-family: Arial, sans-serif;
-                        background-color: #f8f9fa;
-                        margin: 0;
-                        padding: 0;
-                        color: #333333;
-                        line-height: 1.6;
-                    }
-                    .container {
-                        max-width: 600px;
-                        margin: 30px auto;
-                        background-color: #ffffff;
-                        border-radius: 10px;
-                        box-shadow: 0 2px 8px rgba(0,0,0,0.1);
-                        overflow: hidden;
-                    }
-                    .header {
-                        background-color: #007BFF;
-                        color: white;
-                        text-align: center;
-                        padding: 20px;
-                        font-size: 20px;
-                        font-weight: bold;
-                    }
-                    .content {
-                        padding: 25px;
-                    }
-                    .content p {
-                        margin-bottom: 15px;
-                    }
-                    .highlight {
-                        color: #007BFF;
-                        font-weight: bold;
-                    }
-                    .footer {
-                        background-color: #f1f1f1;
-                        text-align: center;
-                        padding: 15px;
-                        font-size: 13px;
-                        color: #555555;
-                    }
-                </style>
-            </head>
-            <body>
-                <div class="container">
-                    <div class="header">
-                        🔔 Rappel d'expiration d'abonnement
-                    </div>
-                    <div class="content">
-                        <p>Bonjour <strong>%s</strong>,</p>
-                        <p>Nous vous rappelons que votre abonnement sur la plateforme <span class="highlight">VitalFeed</span> arrivera à expiration le <strong>%s</strong>.</p>
-                        <p>⏳ Il vous reste moins de 7 jours pour le renouveler afin d’éviter toute interruption de service.</p>
-                        <p>Pour renouveler votre abonnement, veuillez vous connecter à votre espace client dès maintenant.</p>
-                        <p>Merci de votre confiance et de votre fidélité 💙</p>
-                        <p>Cordialement,<br><strong>L’équipe VitalFeed</strong></p>
-                    </div>
-                    <div class="footer">
-                        © 2025 VitalFeed – Tous droits réservés | Support : support@veterinaire.com
-                    </div>
-                </div>
-            </body>
-            </html>
-        """.formatted(prenom, subscriptionId, endDate.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")));
-
-            helper.setText(htmlContent, true);
-            mailSender.send(message);
-
-        } catch (MessagingException e) {
-            throw new RuntimeException("Erreur lors de l'envoi de l'email de rappel HTML", e);
-        }
+        String financeCc = financeNotifications.notifyFinance(FinanceEventType.SUBSCRIPTION_REMINDER, email, prenom,
+                "Abonnement #" + subscriptionId, null);
+
+        String htmlContent = mailTemplates.render("subscription-reminder", Map.of(
+                "prenom", prenom,
+                "endDate", endDate
+        ));
+
+        emailOutbox.enqueue(email, financeCc, "🔔 Rappel : Votre abonnement arrive à expiration", htmlContent);
     }
 
 }
\ No newline at end of file
@@ -1,6 +1,7 @@
 package com.veterinaire.formulaireveterinaire.Schedule;
 
 
+import com.veterinaire.formulaireveterinaire.Config.SubscriptionEntitlementCache;
 import com.veterinaire.formulaireveterinaire.Enums.SubscriptionStatus;
 import com.veterinaire.formulaireveterinaire.DAO.SubscriptionRepository;
 import com.veterinaire.formulaireveterinaire.DAO.UserRepository;
@@ -18,11 +19,14 @@ public class SubscriptionStatusUpdater {
 
     private final SubscriptionRepository subscriptionRepository;
     private final UserRepository userRepository;
+    private final SubscriptionEntitlementCache entitlementCache;
     private static final Logger logger = LoggerFactory.getLogger(SubscriptionStatusUpdater.class);
 
-    public SubscriptionStatusUpdater(SubscriptionRepository subscriptionRepository, UserRepository userRepository) {
+    public SubscriptionStatusUpdater(SubscriptionRepository subscriptionRepository, UserRepository userRepository,
+                                     SubscriptionEntitlementCache entitlementCache) {
         this.subscriptionRepository = subscriptionRepository;
         this.userRepository = userRepository;
+        this.entitlementCache = entitlementCache;
     }
 
     //@Scheduled(cron = "0 * * * * *") // Run every minute (for testing)
@@ -48,6 +52,7 @@ public class SubscriptionStatusUpdater {
             if (endDate != null && endDate.isBefore(LocalDateTime.now()) && user.getStatus() != SubscriptionStatus.EXPIRED) {
                 user.setStatus(SubscriptionStatus.EXPIRED);
                 userRepository.save(user);
+                entitlementCache.invalidate(user.getId());
                 logger.info("Subscription with ID {} has expired. User {}'s status updated to EXPIRED. End date was: {}",
                         subscription.getId(), user.getPrenom(), endDate);
             } else if (endDate != null && !endDate.isBefore(LocalDateTime.now())) {
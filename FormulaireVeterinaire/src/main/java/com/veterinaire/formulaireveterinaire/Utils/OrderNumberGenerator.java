@@ -0,0 +1,90 @@
+package com.veterinaire.formulaireveterinaire.Utils;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Snowflake-style order numbers: 41 bits of milliseconds since 2025-01-01, 10 bits of node id, 12 bits of
+ * per-millisecond sequence, rendered as "ORD-" + 13 Crockford base32 characters (no I, L, O, U; fixed width,
+ * so numbers sort by creation time).
+ * <p>
+ * Lock-free: the (millisecond, sequence) pair lives in one {@link AtomicLong} advanced by CAS. When the clock
+ * goes backwards, or more than 4096 numbers are asked for in one millisecond, the generator keeps counting
+ * on its own logical clock instead of waiting, so it never repeats a value. Uniqueness across instances
+ * relies on each instance having its own {@code order-number.node-id} (0-1023): there is no fallback, an
+ * instance without one refuses to start rather than risk sharing an id with another.
+ */
+@Component
+public class OrderNumberGenerator {
+    public static final String PREFIX = "ORD-";
+
+    static final long EPOCH_MS = 1_735_689_600_000L;   // 2025-01-01T00:00:00Z
+    static final int NODE_BITS = 10;
+    static final int SEQUENCE_BITS = 12;
+    static final long MAX_NODE = (1L << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final char[] CROCKFORD = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;         // 63 bits / 5 bits per character
+
+    private final long nodeBits;
+    private final LongSupplier clock;
+
+    /** (milliseconds since EPOCH_MS) << SEQUENCE_BITS | sequence of the last issued id. */
+    private final AtomicLong last = new AtomicLong();
+
+    @Autowired
+    public OrderNumberGenerator(@Value("${order-number.node-id:-1}") int nodeId) {
+        this(requireConfigured(nodeId), System::currentTimeMillis);
+    }
+
+    OrderNumberGenerator(long nodeId, LongSupplier clock) {
+        if (nodeId < 0 || nodeId > MAX_NODE) {
+            throw new IllegalArgumentException("order-number.node-id must be between 0 and " + MAX_NODE);
+        }
+        this.nodeBits = nodeId << SEQUENCE_BITS;
+        this.clock = clock;
+    }
+
+    public String next() {
+        return encode(nextId());
+    }
+
+    long nextId() {
+        long now = (clock.getAsLong() - EPOCH_MS) << SEQUENCE_BITS;
+        long previous;
+        long candidate;
+        do {
+            previous = last.get();
+            // New millisecond: sequence restarts at 0. Same or earlier (clock skew, sequence exhausted):
+            // previous + 1, which carries into the next logical millisecond after 4095
+            candidate = now > previous ? now : previous + 1;
+        } while (!last.compareAndSet(previous, candidate));
+
+        long timestamp = candidate >>> SEQUENCE_BITS;
+        return (timestamp << (NODE_BITS + SEQUENCE_BITS)) | nodeBits | (candidate & SEQUENCE_MASK);
+    }
+
+    static String encode(long id) {
+        char[] chars = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), chars, 0);
+        for (int i = chars.length - 1; i >= PREFIX.length(); i--) {
+            chars[i] = CROCKFORD[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(chars);
+    }
+
+    private static long requireConfigured(int nodeId) {
+        if (nodeId < 0) {
+            throw new IllegalStateException("order-number.node-id is not set: give each instance its own id "
+                    + "between 0 and " + MAX_NODE + " (ORDER_NODE_ID), order numbers are only unique across "
+                    + "instances with distinct ids");
+        }
+        return nodeId;
+    }
+}
@@ -15,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api")
@@ -52,6 +53,9 @@ public class AuthController {
             responseBody.put("isAdmin", isAdmin);
             return ResponseEntity.ok(responseBody);
 
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Collections.singletonMap("error", "Trop de connexions simultanées, réessayez dans un instant"));
         } catch (RuntimeException e) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body(Collections.singletonMap("error", "Unauthorized: " + e.getMessage()));
@@ -59,7 +63,10 @@ public class AuthController {
     }
 
     @PostMapping("/logout")
-    public ResponseEntity<Void> logout(HttpServletResponse response) {
+    public ResponseEntity<Void> logout(@CookieValue(value = "access_token", required = false) String token,
+                                       HttpServletResponse response) {
+        // Clearing the cookie is not enough: the token itself stays valid until exp unless revoked
+        authService.logout(token);
         ResponseCookie cookie = ResponseCookie.from("access_token", "")
                 .httpOnly(true)
                 .secure(false)
@@ -74,8 +81,9 @@ public class AuthController {
 
     @PostMapping("/reset-password")
     public ResponseEntity<String> resetPassword(@RequestBody Map<String, String> request,
-                                                @AuthenticationPrincipal UserDetails userDetails) {
-        return authService.resetPassword(request, userDetails);
+                                                @AuthenticationPrincipal UserDetails userDetails,
+                                                @CookieValue(value = "access_token", required = false) String token) {
+        return authService.resetPassword(request, userDetails, token);
     }
 
 
@@ -1,5 +1,6 @@
 package com.veterinaire.formulaireveterinaire.controller;
 
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartBatchRequest;
 import com.veterinaire.formulaireveterinaire.DTO.Cart.CartItemDto;
 import com.veterinaire.formulaireveterinaire.DTO.Cart.CartItemRequest;
 import com.veterinaire.formulaireveterinaire.DTO.Cart.CartResponse;
@@ -45,6 +46,14 @@ public class CartController {
         return ResponseEntity.noContent().build();
     }
 
+    // Offline sync: every ADD / UPDATE / REMOVE applied in one transaction, returns the resulting cart
+    @PostMapping("/items/batch")
+    public ResponseEntity<CartResponse> applyOperations(
+            @RequestParam Long userId,
+            @Valid @RequestBody CartBatchRequest req) {
+        return ResponseEntity.ok(cartService.applyOperations(userId, req.getOperations()));
+    }
+
     @DeleteMapping
     public ResponseEntity<Void> clearCart(@RequestParam Long userId) {
         cartService.clearCart(userId);
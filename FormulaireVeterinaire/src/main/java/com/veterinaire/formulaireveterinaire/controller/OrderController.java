@@ -0,0 +1,61 @@
+package com.veterinaire.formulaireveterinaire.controller;
+
+import com.veterinaire.formulaireveterinaire.Config.JwtClaims;
+import com.veterinaire.formulaireveterinaire.DTO.Order.OrderPageResponse;
+import com.veterinaire.formulaireveterinaire.DTO.Order.OrderStatusTransitionRequest;
+import com.veterinaire.formulaireveterinaire.DTO.Order.OrderStatusTransitionResult;
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+import com.veterinaire.formulaireveterinaire.service.OrderService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/api/orders")
+@RequiredArgsConstructor
+public class OrderController {
+
+    private final OrderService orderService;
+
+    // Order history of the caller, identified by the verified token; pass the returned nextCursor to get the
+    // following page. userId is optional and must be the caller's own unless the caller is an admin
+    @GetMapping
+    public ResponseEntity<OrderPageResponse> getUserOrders(
+            @RequestAttribute(JwtClaims.REQUEST_ATTRIBUTE) JwtClaims caller,
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        if (userId != null && !userId.equals(caller.userId()) && !caller.admin()) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
+        }
+        Long ownerId = userId != null ? userId : caller.userId();
+        return ResponseEntity.ok(orderService.listOrders(ownerId, status, from, to, cursor, size));
+    }
+
+    // All orders (ADMIN), optionally for one user
+    @GetMapping("/admin")
+    public ResponseEntity<OrderPageResponse> getAllOrders(
+            @RequestParam(required = false) Long userId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(orderService.listOrders(userId, status, from, to, cursor, size));
+    }
+
+    // Bulk status change (ADMIN); orders not in an allowed source status are returned in rejectedIds
+    @PostMapping("/admin/status")
+    public ResponseEntity<OrderStatusTransitionResult> transitionStatus(
+            @Valid @RequestBody OrderStatusTransitionRequest request) {
+        return ResponseEntity.ok(orderService.transitionStatus(request.getOrderIds(), request.getTargetStatus()));
+    }
+}
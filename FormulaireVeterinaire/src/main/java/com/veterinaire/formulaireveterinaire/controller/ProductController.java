@@ -1,8 +1,12 @@
 package com.veterinaire.formulaireveterinaire.controller;
 
+import com.veterinaire.formulaireveterinaire.Config.CatalogCache;
 import com.veterinaire.formulaireveterinaire.entity.Product;
 import com.veterinaire.formulaireveterinaire.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,9 +20,15 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private CatalogCache catalogCache;
+
+    // Catalog reads are served from pre-serialized bytes (CatalogCache): no query and no JSON serialization
     @GetMapping("/all")
-    public List<Product> getAllProducts() {
-        return productService.getAllProducts();
+    public ResponseEntity<byte[]> getAllProducts(
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return catalogResponse(catalogCache.all(), acceptEncoding, ifNoneMatch);
     }
 
     @GetMapping("/{id}")
@@ -50,17 +60,41 @@ public class ProductController {
     }
 
     @GetMapping("/category/{category}")
-    public List<Product> getProductsByCategory(@PathVariable String category) {
-        return productService.getProductsByCategory(category);
+    public ResponseEntity<byte[]> getProductsByCategory(
+            @PathVariable String category,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return catalogResponse(catalogCache.category(category), acceptEncoding, ifNoneMatch);
     }
 
     @GetMapping("/subcategory/{subCategory}")
-    public List<Product> getProductsBySubCategory(@PathVariable String subCategory) {
-        return productService.getProductsBySubCategory(subCategory);
+    public ResponseEntity<byte[]> getProductsBySubCategory(
+            @PathVariable String subCategory,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return catalogResponse(catalogCache.subCategory(subCategory), acceptEncoding, ifNoneMatch);
     }
 
     @GetMapping("/stock/{inStock}")
     public List<Product> getProductsByStockStatus(@PathVariable Boolean inStock) {
         return productService.getProductsByStockStatus(inStock);
     }
+
+    private static ResponseEntity<byte[]> catalogResponse(CatalogCache.Payload payload, String acceptEncoding,
+                                                          String ifNoneMatch) {
+        boolean gzip = payload.gzip() != null && acceptEncoding != null && acceptEncoding.contains("gzip");
+        String etag = gzip ? payload.gzipEtag() : payload.etag();
+        if (ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"))) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING).build();
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .eTag(etag)
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return response.body(payload.json());
+    }
 }
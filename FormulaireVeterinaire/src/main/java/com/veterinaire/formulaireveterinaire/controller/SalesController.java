@@ -0,0 +1,46 @@
+package com.veterinaire.formulaireveterinaire.controller;
+
+import com.veterinaire.formulaireveterinaire.DTO.Sales.CategorySalesDto;
+import com.veterinaire.formulaireveterinaire.DTO.Sales.DailySalesDto;
+import com.veterinaire.formulaireveterinaire.DTO.Sales.ProductSalesDto;
+import com.veterinaire.formulaireveterinaire.Enums.Category;
+import com.veterinaire.formulaireveterinaire.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Sales dashboard (ADMIN), served from the daily rollups
+@RestController
+@RequestMapping("/api/sales/admin")
+@RequiredArgsConstructor
+public class SalesController {
+
+    private final SalesRollupService salesRollupService;
+
+    @GetMapping("/daily")
+    public ResponseEntity<List<DailySalesDto>> getDailyTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesRollupService.dailyTotals(from, to));
+    }
+
+    @GetMapping("/products")
+    public ResponseEntity<List<ProductSalesDto>> getTopProducts(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Category category,
+            @RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(salesRollupService.topProducts(from, to, category, limit));
+    }
+
+    @GetMapping("/categories")
+    public ResponseEntity<List<CategorySalesDto>> getCategoryTotals(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(salesRollupService.categoryTotals(from, to));
+    }
+}
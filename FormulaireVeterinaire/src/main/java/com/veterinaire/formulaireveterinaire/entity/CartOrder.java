@@ -9,7 +9,12 @@ import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "orders")
+// Keyset pagination of the order history on (confirmed_at, id), per user, per status or across all orders
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_user_confirmed", columnList = "user_id, confirmed_at, id"),
+        @Index(name = "idx_orders_status_confirmed", columnList = "status, confirmed_at, id"),
+        @Index(name = "idx_orders_confirmed", columnList = "confirmed_at, id")
+})
 @Data
 @NoArgsConstructor
 public class CartOrder {
@@ -34,4 +39,15 @@ public class CartOrder {
 
     @Column(name = "confirmed_at")
     private LocalDateTime confirmedAt;        // NULL for carts
-}
\ No newline at end of file
+
+    // Last change to the order or its total (bulk updates in CartOrderRepository set it too);
+    // the abandoned-cart purge uses it as the idle time of a cart
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = LocalDateTime.now();
+    }
+}
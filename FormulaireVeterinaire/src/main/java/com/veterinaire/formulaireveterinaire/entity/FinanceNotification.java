@@ -0,0 +1,43 @@
+package com.veterinaire.formulaireveterinaire.entity;
+
+import com.veterinaire.formulaireveterinaire.Enums.FinanceEventType;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "finance_notifications", indexes = {
+        @Index(name = "idx_finance_notifications_pending", columnList = "digested_at, id")
+})
+@Data
+@NoArgsConstructor
+public class FinanceNotification {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "event_type", nullable = false, length = 32)
+    private FinanceEventType eventType;
+
+    @Column(name = "user_email", nullable = false)
+    private String userEmail;
+
+    @Column(name = "user_name")
+    private String userName;
+
+    private String reference;                 // order number, subscription plan...
+
+    @Column(precision = 12, scale = 2)
+    private BigDecimal amount;                // null when the event has no amount
+
+    @Column(name = "occurred_at", nullable = false)
+    private LocalDateTime occurredAt;
+
+    @Column(name = "digested_at")
+    private LocalDateTime digestedAt;         // null until included in a digest email
+}
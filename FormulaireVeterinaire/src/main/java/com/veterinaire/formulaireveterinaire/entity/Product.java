@@ -37,8 +37,19 @@ public class Product {
     private SubCategory subCategory;
 
     @Column(nullable = false)
-    private Boolean inStock;
+    private Boolean inStock;                  // derived from stockQuantity when stock is tracked
+
+    @Column(name = "stock_quantity")
+    private Integer stockQuantity;            // NULL: stock not tracked, inStock is set by hand
 
     @Column
     private String detailsUrl;
+
+    @PrePersist
+    @PreUpdate
+    void deriveInStock() {
+        if (stockQuantity != null) {
+            inStock = stockQuantity > 0;
+        }
+    }
 }
@@ -0,0 +1,25 @@
+package com.veterinaire.formulaireveterinaire.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+@Entity
+// revoked_at: other instances pick up new revocations by polling on it (TokenRevocationServiceImpl.syncRecent)
+@Table(name = "revoked_tokens", indexes = @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revoked_at"))
+@Data
+@NoArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @Column(name = "token_id", length = 64)
+    private String tokenId;                   // JWT "jti"
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;                // row can be dropped once the token would have expired anyway
+
+    @Column(name = "revoked_at", nullable = false)
+    private Instant revokedAt;
+}
@@ -0,0 +1,49 @@
+package com.veterinaire.formulaireveterinaire.entity;
+
+import com.veterinaire.formulaireveterinaire.Enums.Category;
+import com.veterinaire.formulaireveterinaire.Enums.SubCategory;
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Confirmed sales per day and product, maintained incrementally at checkout (SalesRollupService).
+// Category and sub-category are copied from the product at sale time so dashboards never join the catalog.
+// One row per (day, product): ux_sales_daily_rollup_day_product in schema.sql
+@Entity
+@Table(name = "sales_daily_rollup", indexes = {
+        @Index(name = "idx_sales_rollup_day_category", columnList = "day, category, sub_category")
+})
+@Data
+@NoArgsConstructor
+public class SalesDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private LocalDate day;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private Category category;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "sub_category", nullable = false)
+    private SubCategory subCategory;
+
+    @Column(nullable = false)
+    private Long quantity = 0L;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    @Column(name = "order_count", nullable = false)
+    private Long orderCount = 0L;
+}
@@ -0,0 +1,23 @@
+package com.veterinaire.formulaireveterinaire.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+// Orders already added to sales_daily_rollup: a retried or replayed checkout stage finds its order here
+// and adds nothing, so each order is counted exactly once
+@Entity
+@Table(name = "sales_rollup_orders")
+@Data
+@NoArgsConstructor
+public class SalesRollupOrder {
+
+    @Id
+    @Column(name = "order_id")
+    private Long orderId;
+
+    @Column(name = "applied_at", nullable = false)
+    private LocalDateTime appliedAt;
+}
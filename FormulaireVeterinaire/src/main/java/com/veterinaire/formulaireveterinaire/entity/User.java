@@ -48,6 +48,10 @@ public class User {
     @Column(nullable = false)
     private boolean isAdmin = false;
 
+    // Bumped whenever the rights carried by an issued JWT change; older tokens are then refused.
+    @Column(name = "security_version", nullable = false, columnDefinition = "integer default 0")
+    private int securityVersion = 0;
+
 
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
@@ -9,6 +9,8 @@ import java.util.Map;
 public interface AuthService {
     Map<String, Object> login(LoginDTO loginDTO);
 
-    ResponseEntity<String> resetPassword(Map<String, String> request, UserDetails userDetails);
+    ResponseEntity<String> resetPassword(Map<String, String> request, UserDetails userDetails, String token);
+
+    void logout(String token);
 
 }
@@ -2,9 +2,12 @@ package com.veterinaire.formulaireveterinaire.service;
 
 
 import com.veterinaire.formulaireveterinaire.DTO.Cart.CartItemDto;
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartOperationRequest;
 import com.veterinaire.formulaireveterinaire.DTO.Cart.CartItemRequest;
 import com.veterinaire.formulaireveterinaire.DTO.Cart.CartResponse;
 
+import java.util.List;
+
 
 public interface CartService {
     CartResponse getCart(Long userId);
@@ -12,5 +15,6 @@ public interface CartService {
     CartItemDto updateItem(Long userId, Long itemId, Integer quantity);
     void removeItem(Long userId, Long itemId);
     void clearCart(Long userId);
+    CartResponse applyOperations(Long userId, List<CartOperationRequest> operations);
     String checkout(Long userId);
 }
@@ -0,0 +1,13 @@
+package com.veterinaire.formulaireveterinaire.service;
+
+public interface EmailOutboxService {
+    /**
+     * Stores an HTML email in the outbox, in the caller's transaction when there is one.
+     * The message only leaves once that transaction commits; {@code cc} may be null.
+     */
+    void enqueue(String to, String cc, String subject, String htmlBody);
+
+    /** Same as {@link #enqueue(String, String, String, String)} with one file attached. */
+    void enqueue(String to, String cc, String subject, String htmlBody,
+                 String attachmentName, String attachmentContentType, byte[] attachmentContent);
+}
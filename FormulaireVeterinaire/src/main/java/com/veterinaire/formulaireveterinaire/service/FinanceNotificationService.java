@@ -0,0 +1,24 @@
+package com.veterinaire.formulaireveterinaire.service;
+
+import com.veterinaire.formulaireveterinaire.Enums.FinanceEventType;
+
+import java.math.BigDecimal;
+
+public interface FinanceNotificationService {
+    /**
+     * Makes finance aware of a business event.
+     * In digest mode the event is queued for the next summary email and null is returned;
+     * otherwise the finance address is returned, to be CC'd on the customer email as before.
+     *
+     * @param amount may be null
+     * @return the address to CC, or null
+     */
+    String notifyFinance(FinanceEventType type, String userEmail, String userName, String reference, BigDecimal amount);
+
+    /**
+     * Sends all pending notifications as one summary email with a CSV attachment.
+     *
+     * @return the number of notifications included
+     */
+    int flushDigest();
+}
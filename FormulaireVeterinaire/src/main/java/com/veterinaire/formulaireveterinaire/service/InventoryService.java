@@ -0,0 +1,24 @@
+package com.veterinaire.formulaireveterinaire.service;
+
+import com.veterinaire.formulaireveterinaire.entity.OrderItem;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface InventoryService {
+    /**
+     * Takes the stock of the tracked products in {@code lines} for an order being confirmed, inside the caller's
+     * transaction: a rollback gives everything back. The stock rows themselves are decremented just before that
+     * transaction commits, which then fails if a product no longer covers its quantity.
+     *
+     * @throws IllegalStateException if a product can't cover its quantity; nothing is reserved then
+     */
+    void reserve(Long orderId, List<OrderItem> lines);
+
+    /**
+     * Gives back the stock reserved by these orders (cancellation). Idempotent per order.
+     *
+     * @return the number of products restocked
+     */
+    int release(Collection<Long> orderIds);
+}
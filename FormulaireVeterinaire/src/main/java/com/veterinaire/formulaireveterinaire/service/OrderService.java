@@ -0,0 +1,27 @@
+package com.veterinaire.formulaireveterinaire.service;
+
+import com.veterinaire.formulaireveterinaire.DTO.Order.OrderPageResponse;
+import com.veterinaire.formulaireveterinaire.DTO.Order.OrderStatusTransitionResult;
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface OrderService {
+    /**
+     * Past orders, newest first, one keyset page at a time (ordered by confirmedAt, id).
+     *
+     * @param userId null for all users (admin)
+     * @param status null for every non-cart status
+     * @param from   inclusive, may be null
+     * @param to     inclusive, may be null
+     * @param cursor nextCursor of the previous page, null for the first page
+     */
+    OrderPageResponse listOrders(Long userId, OrderStatus status, LocalDate from, LocalDate to, String cursor, int size);
+
+    /**
+     * Moves every listed order that is in an allowed source status (see {@link OrderStatus#sources()}) to
+     * {@code target} in one statement; the others are reported back untouched. Customers are mailed after commit.
+     */
+    OrderStatusTransitionResult transitionStatus(List<Long> orderIds, OrderStatus target);
+}
@@ -0,0 +1,27 @@
+package com.veterinaire.formulaireveterinaire.service;
+
+import com.veterinaire.formulaireveterinaire.DTO.Sales.CategorySalesDto;
+import com.veterinaire.formulaireveterinaire.DTO.Sales.DailySalesDto;
+import com.veterinaire.formulaireveterinaire.DTO.Sales.ProductSalesDto;
+import com.veterinaire.formulaireveterinaire.Enums.Category;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesRollupService {
+    /**
+     * Adds a confirmed order to the daily rollups. Idempotent: an order already counted is ignored.
+     *
+     * @return true if the order was added by this call
+     */
+    boolean recordOrder(Long orderId);
+
+    // Dashboard reads: ranges are inclusive and read only the rollup rows of those days
+
+    List<DailySalesDto> dailyTotals(LocalDate from, LocalDate to);
+
+    /** Best-selling products by revenue, optionally within one category. */
+    List<ProductSalesDto> topProducts(LocalDate from, LocalDate to, Category category, int limit);
+
+    List<CategorySalesDto> categoryTotals(LocalDate from, LocalDate to);
+}
@@ -0,0 +1,8 @@
+package com.veterinaire.formulaireveterinaire.service;
+
+import com.veterinaire.formulaireveterinaire.Config.JwtClaims;
+
+public interface TokenRevocationService {
+    void revoke(JwtClaims claims);
+    boolean isRevoked(String tokenId);
+}
@@ -1,78 +1,90 @@
 package com.veterinaire.formulaireveterinaire.serviceimpl;
 
 import com.veterinaire.formulaireveterinaire.Config.JwtUtil;
+import com.veterinaire.formulaireveterinaire.Config.SecurityVersionRegistry;
 import com.veterinaire.formulaireveterinaire.DAO.UserRepository;
 import com.veterinaire.formulaireveterinaire.DTO.LoginDTO;
 
 import com.veterinaire.formulaireveterinaire.entity.User;
 import com.veterinaire.formulaireveterinaire.service.AuthService;
-import com.veterinaire.formulaireveterinaire.service.UserService;
+import com.veterinaire.formulaireveterinaire.service.PasswordHashingService;
+import com.veterinaire.formulaireveterinaire.service.TokenRevocationService;
+import io.jsonwebtoken.JwtException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.authentication.AuthenticationManager;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.AuthenticationException;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 @Service
 public class AuthServiceImpl implements AuthService {
+    private static final Logger logger = LoggerFactory.getLogger(AuthServiceImpl.class);
 
-    private final AuthenticationManager authenticationManager;
     private final JwtUtil jwtUtil;
     private final UserRepository userRepository;
-    private final UserService userService;
-    private final PasswordEncoder passwordEncoder;
-
-    public AuthServiceImpl(AuthenticationManager authenticationManager, JwtUtil jwtUtil,
-                           UserRepository userRepository, UserService userService, PasswordEncoder passwordEncoder) {
-        this.authenticationManager = authenticationManager;
+    private final PasswordHashingService passwordHashingService;
+    private final TokenRevocationService tokenRevocationService;
+    private final SecurityVersionRegistry securityVersionRegistry;
+
+    // Compared against when the email is unknown, so that path costs one BCrypt check like a known email
+    // and the response time doesn't tell which emails are registered. Encoded here to get the configured cost.
+    private final String dummyHash;
+
+    public AuthServiceImpl(JwtUtil jwtUtil, UserRepository userRepository,
+                           PasswordHashingService passwordHashingService,
+                           TokenRevocationService tokenRevocationService,
+                           SecurityVersionRegistry securityVersionRegistry) {
         this.jwtUtil = jwtUtil;
         this.userRepository = userRepository;
-        this.userService = userService;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.tokenRevocationService = tokenRevocationService;
+        this.securityVersionRegistry = securityVersionRegistry;
+        this.dummyHash = passwordHashingService.encode(UUID.randomUUID().toString());
     }
 
     @Override
     public Map<String, Object> login(LoginDTO loginDTO) {
-        try {
-            // Authenticate user with email and password
-            Authentication authentication = authenticationManager.authenticate(
-                    new UsernamePasswordAuthenticationToken(loginDTO.email(), loginDTO.password())
-            );
-            SecurityContextHolder.getContext().setAuthentication(authentication);
+        // Single lookup: the same row is used for the password check and the token claims
+        User user = userRepository.findByEmail(loginDTO.email()).orElse(null);
+        if (user == null) {
+            passwordHashingService.matches(loginDTO.password(), dummyHash);
+            throw new RuntimeException("Unauthorized: Bad credentials");
+        }
 
-            // Load user details
-            User user = userService.findByEmail(loginDTO.email())
-                    .orElseThrow(() -> new RuntimeException("User not found: " + loginDTO.email()));
+        // BCrypt runs on the bounded hashing pool (RejectedExecutionException when saturated)
+        if (!passwordHashingService.matches(loginDTO.password(), user.getPassword())) {
+            throw new RuntimeException("Unauthorized: Bad credentials");
+        }
+
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            user.setPassword(passwordHashingService.encode(loginDTO.password()));
+            userRepository.save(user);
+            logger.info("Password hash of user ID {} upgraded to the configured BCrypt cost", user.getId());
+        }
 
-            // For non-admin users (isAdmin = false), allow login regardless of status or subscription
-            // Admins (isAdmin = true) can always log in
-            // No checks for status or subscription expiration for non-admins
+        // For non-admin users (isAdmin = false), allow login regardless of status or subscription
+        // Admins (isAdmin = true) can always log in
+        // No checks for status or subscription expiration for non-admins
 
-            // Generate JWT token
-            String token = jwtUtil.generateToken(loginDTO.email(), user.isAdmin());
-            Map<String, Object> response = new HashMap<>();
-            response.put("token", token);
+        // Generate JWT token
+        String token = jwtUtil.generateToken(user);
+        Map<String, Object> response = new HashMap<>();
+        response.put("token", token);
 
-            response.put("isAdmin", user.isAdmin());
+        response.put("isAdmin", user.isAdmin());
 
-            response.put("userId", user.getId());
+        response.put("userId", user.getId());
 
-            return response;
-        } catch (AuthenticationException e) {
-            throw new RuntimeException("Unauthorized: Bad credentials", e);
-        }
+        return response;
     }
 
     @Override
-    public ResponseEntity<String> resetPassword(Map<String, String> request, UserDetails userDetails) {
+    public ResponseEntity<String> resetPassword(Map<String, String> request, UserDetails userDetails, String token) {
         if (userDetails == null) {
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                     .body("{\"error\": \"Invalid or missing authentication\"}");
@@ -96,15 +108,35 @@ public class AuthServiceImpl implements AuthService {
         }
 
         // ✅ Verify current password
-        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+        if (!passwordHashingService.matches(currentPassword, user.getPassword())) {
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
                     .body("{\"error\": \"Current password is incorrect\"}");
         }
 
         // ✅ Save new password
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.encode(newPassword));
+        // Every session opened with the old password ends: other devices via the version bump,
+        // the presenting token via the revocation list
+        securityVersionRegistry.bump(user);
         userRepository.save(user);
+        revokeQuietly(token);
 
         return ResponseEntity.ok("{\"message\": \"Mot de passe réinitialisé avec succès\"}");
     }
+
+    @Override
+    public void logout(String token) {
+        revokeQuietly(token);
+    }
+
+    private void revokeQuietly(String token) {
+        if (token == null || token.isBlank()) {
+            return;
+        }
+        try {
+            tokenRevocationService.revoke(jwtUtil.verify(token));
+        } catch (JwtException | IllegalArgumentException e) {
+            logger.debug("Token not revoked (already invalid): {}", e.getMessage());
+        }
+    }
 }
@@ -1,36 +1,48 @@
 package com.veterinaire.formulaireveterinaire.serviceimpl;
 
 import com.veterinaire.formulaireveterinaire.DAO.ProductRepository;
+import com.veterinaire.formulaireveterinaire.Mail.MailTemplateRegistry;
 import com.veterinaire.formulaireveterinaire.DAO.UserRepository;
 import com.veterinaire.formulaireveterinaire.DTO.Cart.CartItemDto;
 import com.veterinaire.formulaireveterinaire.DTO.Cart.CartItemRequest;
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartOperationRequest;
 import com.veterinaire.formulaireveterinaire.DTO.Cart.CartResponse;
+import com.veterinaire.formulaireveterinaire.Events.OrderConfirmedEvent;
 import com.veterinaire.formulaireveterinaire.entity.CartOrder;
 import com.veterinaire.formulaireveterinaire.entity.OrderItem;
+import com.veterinaire.formulaireveterinaire.Enums.CartOperationType;
+import com.veterinaire.formulaireveterinaire.Enums.FinanceEventType;
 import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
 import com.veterinaire.formulaireveterinaire.DAO.Cart.CartOrderRepository;
 import com.veterinaire.formulaireveterinaire.DAO.Cart.OrderItemRepository;
 import com.veterinaire.formulaireveterinaire.entity.Product;
 import com.veterinaire.formulaireveterinaire.entity.User;
+import com.veterinaire.formulaireveterinaire.Utils.OrderNumberGenerator;
 import com.veterinaire.formulaireveterinaire.service.CartService;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.veterinaire.formulaireveterinaire.service.EmailOutboxService;
+import com.veterinaire.formulaireveterinaire.service.FinanceNotificationService;
+import com.veterinaire.formulaireveterinaire.service.InventoryService;
 import jakarta.persistence.EntityNotFoundException;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.UUID;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
@@ -40,46 +52,61 @@ public class CartServiceImpl implements CartService {
     private final OrderItemRepository itemRepo;
     private final UserRepository userRepo;
     private final ProductRepository productRepo;
-    private final JavaMailSender mailSender;
-
-    @Value("${finance.email}")
-    private String financeEmail;
+    private final EmailOutboxService emailOutbox;
+    private final MailTemplateRegistry mailTemplates;
+    private final FinanceNotificationService financeNotifications;
+    private final ApplicationEventPublisher events;
+    private final OrderNumberGenerator orderNumbers;
+    private final InventoryService inventory;
 
     private static final Logger logger = LoggerFactory.getLogger(CartServiceImpl.class);
 
-    // --- Helper: Get or create CART ---
+    // --- Helper: Get or create CART (insert-or-fetch, the database guarantees a single open cart) ---
     private CartOrder getOrCreateCart(Long userId) {
         return cartOrderRepo.findByUserIdAndStatus(userId, OrderStatus.CART)
                 .orElseGet(() -> {
-                    CartOrder cart = new CartOrder();
-                    cart.setUserId(userId);
-                    cart.setStatus(OrderStatus.CART);
-                    cart.setTotalAmount(BigDecimal.ZERO);
-                    return cartOrderRepo.save(cart);
+                    cartOrderRepo.insertCartIfAbsent(userId);
+                    return cartOrderRepo.findByUserIdAndStatus(userId, OrderStatus.CART)
+                            .orElseThrow(() -> new IllegalStateException("Cart could not be created for user " + userId));
                 });
     }
 
-    // --- Recalculate total ---
-    private void recalcTotal(Long orderId) {
-        List<OrderItem> items = itemRepo.findByOrderId(orderId);
-        BigDecimal total = items.stream()
-                .map(i -> i.getPrice().multiply(BigDecimal.valueOf(i.getQuantity())))
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    // --- Apply a line change to the stored total (one UPDATE, no reload of the lines) ---
+    private void adjustTotal(Long orderId, BigDecimal unitPrice, int quantityDelta) {
+        if (quantityDelta != 0) {
+            cartOrderRepo.addToTotal(orderId, unitPrice.multiply(BigDecimal.valueOf(quantityDelta)));
+        }
+    }
 
-        CartOrder order = (CartOrder) cartOrderRepo.findById(orderId).orElseThrow();
-        order.setTotalAmount(total);
-        cartOrderRepo.save(order);
+    // --- Load the products of all lines in one query ---
+    private Map<Long, Product> loadProducts(List<OrderItem> items) {
+        Set<Long> productIds = items.stream().map(OrderItem::getProductId).collect(Collectors.toSet());
+        if (productIds.isEmpty()) {
+            return Map.of();
+        }
+        return productRepo.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+    }
+
+    private static Product productOf(Map<Long, Product> products, OrderItem item) {
+        Product product = products.get(item.getProductId());
+        if (product == null) {
+            throw new EntityNotFoundException("Product not found: " + item.getProductId());
+        }
+        return product;
     }
 
     @Override
     public CartResponse getCart(Long userId) {
         CartOrder cart = getOrCreateCart(userId);
         List<OrderItem> items = itemRepo.findByOrderId(cart.getId());
+        return toResponse(cart.getId(), cart.getTotalAmount(), items, loadProducts(items));
+    }
 
+    private static CartResponse toResponse(Long cartId, BigDecimal totalAmount, Collection<OrderItem> items,
+                                           Map<Long, Product> products) {
         List<CartItemDto> dtos = items.stream().map(item -> {
-            // Fetch product
-            Product product = productRepo.findById(item.getProductId())
-                    .orElseThrow(() -> new EntityNotFoundException("Product not found: " + item.getProductId()));
+            Product product = productOf(products, item);
 
             CartItemDto dto = new CartItemDto();
             dto.setItemId(item.getId());
@@ -93,8 +120,8 @@ public class CartServiceImpl implements CartService {
         }).toList();
 
         CartResponse resp = new CartResponse();
-        resp.setCartId(cart.getId());
-        resp.setTotalAmount(cart.getTotalAmount());
+        resp.setCartId(cartId);
+        resp.setTotalAmount(totalAmount);
         resp.setItems(dtos);
         return resp;
     }
@@ -107,16 +134,10 @@ public class CartServiceImpl implements CartService {
         Product product = productRepo.findById(req.getProductId())
                 .orElseThrow(() -> new EntityNotFoundException("Product not found: " + req.getProductId()));
 
-        BigDecimal price = product.getPrice();
-
-        OrderItem item = new OrderItem();
-        item.setOrderId(cart.getId());
-        item.setProductId(req.getProductId());
-        item.setQuantity(req.getQuantity());
-        item.setPrice(price);
-        item = itemRepo.save(item);
+        // Same product again: its existing line is incremented, the total moves by the added quantity at the line price
+        OrderItem item = itemRepo.upsertLine(cart.getId(), req.getProductId(), req.getQuantity(), product.getPrice());
 
-        recalcTotal(cart.getId());
+        adjustTotal(cart.getId(), item.getPrice(), req.getQuantity());
 
         CartItemDto dto = new CartItemDto();
         dto.setItemId(item.getId());
@@ -142,13 +163,14 @@ public class CartServiceImpl implements CartService {
 
         if (quantity <= 0) {
             itemRepo.delete(item);
-            recalcTotal(cart.getId());
+            adjustTotal(cart.getId(), item.getPrice(), -item.getQuantity());
             return null; // or throw
         }
 
+        int previousQuantity = item.getQuantity();
         item.setQuantity(quantity);
         itemRepo.save(item);
-        recalcTotal(cart.getId());
+        adjustTotal(cart.getId(), item.getPrice(), quantity - previousQuantity);
 
         CartItemDto dto = new CartItemDto();
         dto.setItemId(item.getId());
@@ -171,7 +193,7 @@ public class CartServiceImpl implements CartService {
         }
 
         itemRepo.delete(item);
-        recalcTotal(cart.getId());
+        adjustTotal(cart.getId(), item.getPrice(), -item.getQuantity());
     }
 
     @Override
@@ -183,19 +205,154 @@ public class CartServiceImpl implements CartService {
         cartOrderRepo.save(cart);
     }
 
+    @Override
+    @Transactional
+    public CartResponse applyOperations(Long userId, List<CartOperationRequest> operations) {
+        CartOrder cart = getOrCreateCart(userId);
+
+        Map<Long, OrderItem> lines = new LinkedHashMap<>();
+        for (OrderItem item : itemRepo.findByOrderId(cart.getId())) {
+            lines.put(item.getId(), item);
+        }
+        BigDecimal previousTotal = sumOf(lines.values());
+
+        // Products of the current lines and of every ADD, in one query
+        Set<Long> productIds = new HashSet<>();
+        lines.values().forEach(item -> productIds.add(item.getProductId()));
+        for (CartOperationRequest op : operations) {
+            if (op.getType() == CartOperationType.ADD && op.getProductId() != null) {
+                productIds.add(op.getProductId());
+            }
+        }
+        Map<Long, Product> products = productIds.isEmpty() ? Map.of() : productRepo.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        // Apply everything in memory first: a bad operation rejects the whole batch before any write
+        Map<Long, OrderItem> lineByProduct = new HashMap<>();
+        lines.values().forEach(item -> lineByProduct.put(item.getProductId(), item));
+
+        List<OrderItem> added = new ArrayList<>();
+        Map<Long, OrderItem> changed = new LinkedHashMap<>();
+        List<OrderItem> removed = new ArrayList<>();
+        for (CartOperationRequest op : operations) {
+            switch (op.getType()) {
+                case ADD -> {
+                    if (op.getProductId() == null || op.getQuantity() == null || op.getQuantity() < 1) {
+                        throw new IllegalArgumentException("ADD requires productId and quantity >= 1");
+                    }
+                    Product product = products.get(op.getProductId());
+                    if (product == null) {
+                        throw new EntityNotFoundException("Product not found: " + op.getProductId());
+                    }
+                    // One line per product (ux_order_items_order_product): merge into the line already there
+                    OrderItem existing = lineByProduct.get(product.getId());
+                    if (existing != null) {
+                        existing.setQuantity(existing.getQuantity() + op.getQuantity());
+                        if (existing.getId() != null) {
+                            changed.put(existing.getId(), existing);
+                        }
+                        continue;
+                    }
+                    OrderItem item = new OrderItem();
+                    item.setOrderId(cart.getId());
+                    item.setProductId(product.getId());
+                    item.setQuantity(op.getQuantity());
+                    item.setPrice(product.getPrice());
+                    added.add(item);
+                    lineByProduct.put(product.getId(), item);
+                }
+                case UPDATE -> {
+                    if (op.getQuantity() == null) {
+                        throw new IllegalArgumentException("UPDATE requires quantity");
+                    }
+                    OrderItem item = lineOf(lines, op.getItemId());
+                    if (op.getQuantity() <= 0) {
+                        lines.remove(item.getId());
+                        lineByProduct.remove(item.getProductId());
+                        changed.remove(item.getId());
+                        removed.add(item);
+                    } else {
+                        item.setQuantity(op.getQuantity());
+                        changed.put(item.getId(), item);
+                    }
+                }
+                case REMOVE -> {
+                    OrderItem item = lineOf(lines, op.getItemId());
+                    lines.remove(item.getId());
+                    lineByProduct.remove(item.getProductId());
+                    changed.remove(item.getId());
+                    removed.add(item);
+                }
+            }
+        }
+
+        // Flushed as JDBC batches (hibernate.jdbc.batch_size), then one delta UPDATE on the cart total
+        itemRepo.deleteAll(removed);
+        if (!removed.isEmpty() && !added.isEmpty()) {
+            // Hibernate runs deletes last: flush them so a product removed and re-added can't hit the unique index
+            itemRepo.flush();
+        }
+        List<OrderItem> toSave = new ArrayList<>(changed.values());
+        toSave.addAll(added);
+        itemRepo.saveAll(toSave);
+
+        List<OrderItem> result = new ArrayList<>(lines.values());
+        result.addAll(added);
+        BigDecimal total = sumOf(result);
+        BigDecimal delta = total.subtract(previousTotal);
+        if (delta.signum() != 0) {
+            cartOrderRepo.addToTotal(cart.getId(), delta);
+        }
+
+        return toResponse(cart.getId(), total, result, products);
+    }
+
+    private static OrderItem lineOf(Map<Long, OrderItem> lines, Long itemId) {
+        OrderItem item = itemId != null ? lines.get(itemId) : null;
+        if (item == null) {
+            throw new EntityNotFoundException("Cart item not found: " + itemId);
+        }
+        return item;
+    }
+
+    private static BigDecimal sumOf(Collection<OrderItem> items) {
+        BigDecimal total = BigDecimal.ZERO;
+        for (OrderItem item : items) {
+            total = total.add(item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+        }
+        return total;
+    }
+
     @Override
     @Transactional
     public String checkout(Long userId) {
         CartOrder cart = cartOrderRepo.findByUserIdAndStatus(userId, OrderStatus.CART)
                 .orElseThrow(() -> new EntityNotFoundException("No cart found"));
 
-        if (cart.getTotalAmount() == null || cart.getTotalAmount().compareTo(BigDecimal.ZERO) <= 0) {
+        // Claim the cart before anything else: a double submit must not reserve stock, number or notify twice
+        if (cartOrderRepo.claimCart(cart.getId()) == 0) {
+            throw new IllegalStateException("Cart already checked out");
+        }
+
+        // The total is maintained by deltas: re-sum the lines once here so the order is never confirmed on a drifted amount
+        BigDecimal linesTotal = itemRepo.sumLineTotals(cart.getId());
+        if (cart.getTotalAmount() == null || cart.getTotalAmount().compareTo(linesTotal) != 0) {
+            logger.warn("Cart {} total drifted: stored {}, lines {}; corrected", cart.getId(), cart.getTotalAmount(), linesTotal);
+            cart.setTotalAmount(linesTotal);
+        }
+
+        if (linesTotal.compareTo(BigDecimal.ZERO) <= 0) {
             throw new IllegalStateException("Cannot checkout empty cart");
         }
 
+        // Throws (and rolls the checkout back) if a tracked product can't cover its line. The product rows are
+        // only decremented, and locked, just before this transaction commits
+        List<OrderItem> items = itemRepo.findByOrderId(cart.getId());
+        inventory.reserve(cart.getId(), items);
+
         // Confirm order
         cart.setStatus(OrderStatus.CONFIRMED);
-        String orderNumber = "ORD-" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+        String orderNumber = orderNumbers.next();   // unique by construction (distinct node id per instance, checked at startup)
         cart.setOrderNumber(orderNumber);
         cart.setConfirmedAt(LocalDateTime.now());
         cartOrderRepo.save(cart);
@@ -204,159 +361,48 @@ public class CartServiceImpl implements CartService {
         User user = userRepo.findById(userId)
                 .orElseThrow(() -> new EntityNotFoundException("User not found"));
 
-        // SEND EMAIL
-        sendOrderConfirmationEmail(user, cart, financeEmail);
+        // The email and the finance record are rows written in this transaction: they are committed with the
+        // order or not at all, and the outbox dispatcher does the SMTP work off the request path
+        String financeCc = financeNotifications.notifyFinance(FinanceEventType.ORDER_CONFIRMED, user.getEmail(),
+                user.getNom(), orderNumber, cart.getTotalAmount());
+        sendOrderConfirmationEmail(user, cart, items, financeCc);
+
+        // Sales rollup and analytics run on the CheckoutPipeline once this transaction has committed
+        events.publishEvent(new OrderConfirmedEvent(cart.getId(), userId, orderNumber, cart.getTotalAmount(),
+                cart.getConfirmedAt()));
 
         return orderNumber;
     }
 
-    private void sendOrderConfirmationEmail(User user, CartOrder order, String ccEmail) {
-        MimeMessage message = mailSender.createMimeMessage();
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm");
-        String orderDateStr = order.getConfirmedAt().format(formatter);
-
-        try {
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setTo(user.getEmail());
-            helper.setCc(ccEmail);
-            helper.setSubject("Commande Confirmée – VITALFEED");
-
-            String nom = user.getNom() != null ? user.getNom() : "Cher client";
-
-            List<OrderItem> items = itemRepo.findByOrderId(order.getId());
-            StringBuilder itemsHtml = new StringBuilder();
-
-            for (OrderItem item : items) {
-                Product product = productRepo.findById(item.getProductId())
-                        .orElseThrow(() -> new EntityNotFoundException("Product not found"));
-
-                String productName = product.getName();
-                String imageUrl = product.getImageUrl() != null ? product.getImageUrl() : "";
-                BigDecimal subTotal = item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()));
-                String unitPriceStr = String.format("%.2f", item.getPrice());
-                String subTotalStr = String.format("%.2f", subTotal);
-
-                itemsHtml.append("""
-                <tr style="border-bottom:1px solid #eee;">
-                    <td style="padding:12px; vertical-align:middle;">
-                        <img src="%s" alt="%s" style="width:60px; height:60px; object-fit:cover; border-radius:6px; float:left; margin-right:12px;">
-                        <div style="margin-left:72px;">
-                            <strong style="font-size:15px;">%s</strong>
-                        </div>
-                    </td>
-                    <td style="padding:12px; text-align:center; vertical-align:middle; font-weight:600;">%d</td>
-                    <td style="padding:12px; text-align:right; vertical-align:middle; font-weight:600;">%s TND</td>
-                    <td style="padding:12px; text-align:right; vertical-align:middle; font-weight:600;">%s TND</td>
-                </tr>
-                """.formatted(
-                        imageUrl,
-                        productName,
-                        productName,
-                        item.getQuantity(),
-                        unitPriceStr,
-                        subTotalStr
-                ));
-            }
+    private void sendOrderConfirmationEmail(User user, CartOrder order, List<OrderItem> items, String ccEmail) {
+        String nom = user.getNom() != null ? user.getNom() : "Cher client";
 
-            String totalStr = String.format("%.2f", order.getTotalAmount());
-
-            String htmlContent = """
-<!DOCTYPE html>
-<html>
-<head>
-  <meta charset="UTF-8">
-  <title>Commande Confirmée – VITALFEED</title>
-</head>
-<body style="margin:0; padding:0; background-color:#f7f9fc; font-family:Segoe UI, Tahoma, Geneva, Verdana, sans-serif; color:#333;">
-  <table role="presentation" width="100%%" cellspacing="0" cellpadding="0" border="0">
-    <tr>
-      <td align="center" style="padding:30px 0;">
-        <table width="680" cellpadding="0" cellspacing="0" border="0" style="background:#ffffff; border-radius:12px; overflow:hidden;">
-          <!-- Header -->
-          <tr>
-            <td align="center" style="background-color:#00897B; color:#fff; padding:30px;">
-              <h1 style="margin:0; font-size:26px;">VITALFEED</h1>
-              <p style="margin:8px 0 0; font-size:14px;">Simplifiez et modernisez votre pratique vétérinaire</p>
-            </td>
-          </tr>
-
-          <!-- Content -->
-          <tr>
-            <td style="padding:40px;">
-              <p style="font-size:16px; line-height:1.6; margin-bottom:25px;">
-                <strong>Bonjour Dr %s,</strong><br>
-                Votre commande sur <strong>VITALFEED</strong> a été <strong>confirmée avec succès</strong>.<br>
-                Notre service financier vous contactera sous 24h pour finaliser le paiement.
-              </p>
-
-              <h3 style="color:#00897B; border-bottom:2px solid #e0f2f1; padding-bottom:6px; font-size:18px;">Détails de la commande</h3>
-              <table width="100%%" cellspacing="0" cellpadding="4" style="font-size:15px; margin-bottom:30px;">
-                <tr>
-                  <td><strong>Numéro de commande :</strong></td>
-                  <td align="right">%s</td>
-                </tr>
-                <tr>
-                  <td><strong>Date de confirmation :</strong></td>
-                  <td align="right">%s</td>
-                </tr>
-              </table>
-
-              <h3 style="color:#00897B; border-bottom:2px solid #e0f2f1; padding-bottom:6px; font-size:18px;">Produits commandés</h3>
-              <table width="100%%" cellpadding="0" cellspacing="0" border="0" style="border-collapse:collapse; font-size:15px;">
-                <thead>
-                  <tr style="background:#e0f2f1; color:#00695c;">
-                    <th align="left" style="padding:12px;">Produit</th>
-                    <th align="center" style="padding:12px;">Quantité</th>
-                    <th align="right" style="padding:12px;">Prix unitaire</th>
-                    <th align="right" style="padding:12px;">Sous-total</th>
-                  </tr>
-                </thead>
-                <tbody>
-                  %s
-                  <tr style="background:#e8f5e9; font-weight:700;">
-                    <td colspan="3" align="right" style="padding:15px;">Total :</td>
-                    <td align="right" style="padding:15px;">%s TND</td>
-                  </tr>
-                </tbody>
-              </table>
-
-              <p style="text-align:center; margin-top:35px; font-size:15px; color:#555;">Merci pour votre confiance !</p>
-              <p style="text-align:center; margin:20px 0 5px; font-weight:600;">Bien cordialement,</p>
-              <p style="text-align:center; margin:0; color:#00897B; font-weight:700;">L’équipe VITALFEED</p>
-            </td>
-          </tr>
-
-          <!-- Footer -->
-          <tr>
-            <td align="center" style="background:#f0f4f8; padding:20px; font-size:13px; color:#666;">
-              <p style="margin:0;">Cet e-mail a été envoyé automatiquement, merci de ne pas y répondre.</p>
-              <p style="margin:5px 0 0;">© %s VITALFEED – Tous droits réservés.</p>
-            </td>
-          </tr>
-        </table>
-      </td>
-    </tr>
-  </table>
-</body>
-</html>
-""".formatted(
-                    nom,
-                    order.getOrderNumber(),
-                    orderDateStr,
-                    itemsHtml.toString(),
-                    totalStr,
-                    String.valueOf(LocalDate.now().getYear())
-            );
-
-
-            helper.setText(htmlContent, true);
-            mailSender.send(message);
-
-            logger.info("Order confirmation email sent to {} with CC to {}", user.getEmail(), ccEmail);
-
-        } catch (MessagingException e) {
-            logger.error("Failed to send order email: {}", e.getMessage());
-            throw new RuntimeException("Erreur lors de l'envoi de l'email", e);
+        Map<Long, Product> products = loadProducts(items);
+        StringBuilder itemsHtml = new StringBuilder(items.size() * 1024);
+
+        for (OrderItem item : items) {
+            Product product = productOf(products, item);
+
+            mailTemplates.renderTo(itemsHtml, "order-confirmation-item", Map.of(
+                    "imageUrl", product.getImageUrl() != null ? product.getImageUrl() : "",
+                    "productName", product.getName(),
+                    "quantity", item.getQuantity(),
+                    "unitPrice", item.getPrice(),
+                    "subTotal", item.getPrice().multiply(BigDecimal.valueOf(item.getQuantity()))
+            ));
         }
+
+        String htmlContent = mailTemplates.render("order-confirmation", Map.of(
+                "nom", nom,
+                "orderNumber", order.getOrderNumber(),
+                "confirmedAt", order.getConfirmedAt(),
+                "items", itemsHtml,
+                "total", order.getTotalAmount(),
+                "year", LocalDate.now().getYear()
+        ));
+
+        emailOutbox.enqueue(user.getEmail(), ccEmail, "Commande Confirmée – VITALFEED", htmlContent);
+
+        logger.info("Order confirmation email queued for {} with CC to {}", user.getEmail(), ccEmail);
     }
 }
@@ -0,0 +1,50 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.DAO.OutboxEmailRepository;
+import com.veterinaire.formulaireveterinaire.Enums.OutboxStatus;
+import com.veterinaire.formulaireveterinaire.entity.OutboxEmail;
+import com.veterinaire.formulaireveterinaire.service.EmailOutboxService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Service
+public class EmailOutboxServiceImpl implements EmailOutboxService {
+    private static final Logger logger = LoggerFactory.getLogger(EmailOutboxServiceImpl.class);
+
+    private final OutboxEmailRepository outboxRepository;
+
+    public EmailOutboxServiceImpl(OutboxEmailRepository outboxRepository) {
+        this.outboxRepository = outboxRepository;
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(String to, String cc, String subject, String htmlBody) {
+        enqueue(to, cc, subject, htmlBody, null, null, null);
+    }
+
+    @Override
+    @Transactional
+    public void enqueue(String to, String cc, String subject, String htmlBody,
+                        String attachmentName, String attachmentContentType, byte[] attachmentContent) {
+        Instant now = Instant.now();
+        OutboxEmail email = new OutboxEmail();
+        email.setRecipient(to);
+        email.setCc(cc);
+        email.setSubject(subject);
+        email.setBody(htmlBody);
+        email.setAttachmentName(attachmentName);
+        email.setAttachmentContentType(attachmentContentType);
+        email.setAttachmentContent(attachmentContent);
+        email.setStatus(OutboxStatus.PENDING);
+        email.setAttempts(0);
+        email.setNextAttemptAt(now);
+        email.setCreatedAt(now);
+        outboxRepository.save(email);
+        logger.debug("Email '{}' to {} queued in outbox", subject, to);
+    }
+}
@@ -0,0 +1,171 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.DAO.FinanceNotificationRepository;
+import com.veterinaire.formulaireveterinaire.Enums.FinanceEventType;
+import com.veterinaire.formulaireveterinaire.Mail.MailTemplateRegistry;
+import com.veterinaire.formulaireveterinaire.entity.FinanceNotification;
+import com.veterinaire.formulaireveterinaire.service.EmailOutboxService;
+import com.veterinaire.formulaireveterinaire.service.FinanceNotificationService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finance used to be CC'd on every order and subscription email. In digest mode ({@code finance.digest.enabled})
+ * events are stored in {@code finance_notifications} instead and mailed as one summary with a CSV attachment,
+ * on a schedule or once {@code finance.digest.threshold} events are waiting (see FinanceDigestScheduler).
+ */
+@Service
+public class FinanceNotificationServiceImpl implements FinanceNotificationService {
+    private static final Logger logger = LoggerFactory.getLogger(FinanceNotificationServiceImpl.class);
+
+    private static final DateTimeFormatter CSV_DATE = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final FinanceNotificationRepository notificationRepository;
+    private final EmailOutboxService emailOutbox;
+    private final MailTemplateRegistry mailTemplates;
+
+    @Value("${finance.email}")
+    private String financeEmail;
+
+    @Value("${finance.digest.enabled:false}")
+    private boolean digestEnabled;
+
+    @Value("${finance.digest.max-rows:1000}")
+    private int maxRows;
+
+    public FinanceNotificationServiceImpl(FinanceNotificationRepository notificationRepository,
+                                          EmailOutboxService emailOutbox, MailTemplateRegistry mailTemplates) {
+        this.notificationRepository = notificationRepository;
+        this.emailOutbox = emailOutbox;
+        this.mailTemplates = mailTemplates;
+    }
+
+    @Override
+    @Transactional
+    public String notifyFinance(FinanceEventType type, String userEmail, String userName, String reference, BigDecimal amount) {
+        if (!digestEnabled) {
+            return financeEmail;
+        }
+
+        FinanceNotification notification = new FinanceNotification();
+        notification.setEventType(type);
+        notification.setUserEmail(userEmail);
+        notification.setUserName(userName);
+        notification.setReference(reference);
+        notification.setAmount(amount);
+        notification.setOccurredAt(LocalDateTime.now());
+        notificationRepository.save(notification);
+        return null;
+    }
+
+    @Override
+    @Transactional
+    public int flushDigest() {
+        List<FinanceNotification> pending = notificationRepository.lockPending(maxRows);
+        if (pending.isEmpty()) {
+            return 0;
+        }
+
+        StringBuilder rows = new StringBuilder(pending.size() * 512);
+        BigDecimal ordersTotal = BigDecimal.ZERO;
+        int orders = 0;
+        for (FinanceNotification notification : pending) {
+            if (notification.getEventType() == FinanceEventType.ORDER_CONFIRMED && notification.getAmount() != null) {
+                ordersTotal = ordersTotal.add(notification.getAmount());
+                orders++;
+            }
+            mailTemplates.renderTo(rows, "finance-digest-row", Map.of(
+                    "occurredAt", notification.getOccurredAt(),
+                    "event", label(notification.getEventType()),
+                    "userName", notification.getUserName() != null ? notification.getUserName() : "",
+                    "userEmail", notification.getUserEmail(),
+                    "reference", notification.getReference() != null ? notification.getReference() : "",
+                    "amount", notification.getAmount() != null ? formatAmount(notification.getAmount()) + " TND" : "—"
+            ));
+        }
+
+        LocalDateTime from = pending.get(0).getOccurredAt();
+        LocalDateTime to = pending.get(pending.size() - 1).getOccurredAt();
+        String htmlContent = mailTemplates.render("finance-digest", Map.of(
+                "count", pending.size(),
+                "from", from,
+                "to", to,
+                "orders", orders,
+                "ordersTotal", ordersTotal,
+                "rows", rows,
+                "year", LocalDate.now().getYear()
+        ));
+
+        String fileName = "vitalfeed-finance-" + to.toLocalDate() + ".csv";
+        emailOutbox.enqueue(financeEmail, null, "Récapitulatif finance – " + pending.size() + " événements – VITALFEED",
+                htmlContent, fileName, "text/csv", toCsv(pending));
+
+        LocalDateTime now = LocalDateTime.now();
+        for (FinanceNotification notification : pending) {
+            notification.setDigestedAt(now);
+        }
+        logger.info("Finance digest queued with {} notifications", pending.size());
+        return pending.size();
+    }
+
+    private static byte[] toCsv(List<FinanceNotification> notifications) {
+        // ';' and a UTF-8 BOM so that Excel (French locale) opens it with the right columns and accents
+        StringBuilder csv = new StringBuilder(notifications.size() * 128);
+        csv.append('\uFEFF').append("Date;Événement;Client;Email;Référence;Montant (TND)\r\n");
+        for (FinanceNotification notification : notifications) {
+            csv.append(notification.getOccurredAt().format(CSV_DATE)).append(';');
+            appendCsvField(csv, label(notification.getEventType()));
+            csv.append(';');
+            appendCsvField(csv, notification.getUserName());
+            csv.append(';');
+            appendCsvField(csv, notification.getUserEmail());
+            csv.append(';');
+            appendCsvField(csv, notification.getReference());
+            csv.append(';');
+            if (notification.getAmount() != null) {
+                csv.append(formatAmount(notification.getAmount()));
+            }
+            csv.append("\r\n");
+        }
+        return csv.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static void appendCsvField(StringBuilder csv, String value) {
+        if (value == null) {
+            return;
+        }
+        // ',' is quoted too: outside a French locale Excel splits on it instead of ';'
+        if (value.indexOf(';') < 0 && value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            csv.append(value);
+            return;
+        }
+        csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private static String formatAmount(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).toPlainString();
+    }
+
+    private static String label(FinanceEventType type) {
+        return switch (type) {
+            case ORDER_CONFIRMED -> "Commande confirmée";
+            case SUBSCRIPTION_ASSIGNED -> "Abonnement activé";
+            case SUBSCRIPTION_UPDATED -> "Abonnement mis à jour";
+            case SUBSCRIPTION_REQUESTED -> "Demande d'abonnement";
+            case SUBSCRIPTION_REMINDER -> "Rappel d'expiration";
+        };
+    }
+}
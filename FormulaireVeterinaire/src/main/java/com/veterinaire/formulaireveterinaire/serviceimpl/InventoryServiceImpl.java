@@ -0,0 +1,194 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.Config.CatalogCache;
+import com.veterinaire.formulaireveterinaire.DAO.Inventory.StockReservationRepository;
+import com.veterinaire.formulaireveterinaire.DAO.ProductRepository;
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+import com.veterinaire.formulaireveterinaire.Events.OrderStatusChangedEvent;
+import com.veterinaire.formulaireveterinaire.entity.OrderItem;
+import com.veterinaire.formulaireveterinaire.entity.Product;
+import com.veterinaire.formulaireveterinaire.entity.StockReservation;
+import com.veterinaire.formulaireveterinaire.service.InventoryService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Stock reservation at checkout, in two steps:
+ * <ol>
+ *   <li>an in-memory admission check: per product, an {@link AtomicLong} of the units held by checkouts still in
+ *   flight on this instance, raised by CAS only while (stock read in this transaction - in flight) covers the
+ *   line. Checkouts racing for the last units are turned away here, without queueing on the product row;</li>
+ *   <li>the conditional {@code UPDATE products ... WHERE stock_quantity >= ?}, which is what actually guarantees
+ *   no overselling, across instances too.</li>
+ * </ol>
+ * The UPDATE takes the product row lock, held until the checkout commits. It therefore runs just before commit
+ * (a {@code beforeCommit} synchronization) rather than when {@link #reserve} is called: concurrent checkouts of
+ * a popular product still serialize on the row, but only for the commit itself, not for the rest of the checkout.
+ * A refusal there rolls the whole checkout back.
+ * <p>
+ * The in-flight units are given back when the checkout transaction completes, committed or not. Products without
+ * a stock quantity are not tracked and never reserved.
+ */
+@Service
+public class InventoryServiceImpl implements InventoryService {
+    private static final Logger logger = LoggerFactory.getLogger(InventoryServiceImpl.class);
+
+    private record Hold(Long productId, int quantity) {}
+
+    private final ProductRepository productRepo;
+    private final StockReservationRepository reservationRepo;
+    private final CatalogCache catalogCache;
+    private final MeterRegistry meterRegistry;
+
+    private final ConcurrentHashMap<Long, AtomicLong> inFlight = new ConcurrentHashMap<>();
+
+    public InventoryServiceImpl(ProductRepository productRepo, StockReservationRepository reservationRepo,
+                                CatalogCache catalogCache, MeterRegistry meterRegistry) {
+        this.productRepo = productRepo;
+        this.reservationRepo = reservationRepo;
+        this.catalogCache = catalogCache;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    @Transactional
+    public void reserve(Long orderId, List<OrderItem> lines) {
+        Map<Long, Product> tracked = productRepo.findAllById(lines.stream().map(OrderItem::getProductId).toList())
+                .stream()
+                .filter(product -> product.getStockQuantity() != null)
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        if (tracked.isEmpty()) {
+            return;
+        }
+
+        List<OrderItem> toReserve = lines.stream()
+                .filter(line -> tracked.containsKey(line.getProductId()))
+                .sorted(Comparator.comparing(OrderItem::getProductId))
+                .toList();
+
+        List<Hold> holds = new ArrayList<>(toReserve.size());
+        try {
+            for (OrderItem line : toReserve) {
+                Product product = tracked.get(line.getProductId());
+                if (!hold(product, line.getQuantity())) {
+                    count("rejected.memory");
+                    throw outOfStock(product);
+                }
+                holds.add(new Hold(product.getId(), line.getQuantity()));
+            }
+        } catch (RuntimeException e) {
+            holds.forEach(this::unhold);
+            throw e;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        reservationRepo.saveAll(toReserve.stream().map(line -> {
+            StockReservation reservation = new StockReservation();
+            reservation.setOrderId(orderId);
+            reservation.setProductId(line.getProductId());
+            reservation.setQuantity(line.getQuantity());
+            reservation.setReservedAt(now);
+            return reservation;
+        }).toList());
+        catalogCache.invalidate();   // stock and inStock changed; the public catalog catches up after commit
+
+        // After commit the database stock already reflects the decrement; after a rollback nothing was taken
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    decrement(toReserve, tracked);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    holds.forEach(InventoryServiceImpl.this::unhold);
+                }
+            });
+        } else {
+            try {
+                decrement(toReserve, tracked);
+            } finally {
+                holds.forEach(this::unhold);
+            }
+        }
+    }
+
+    // Last statements of the checkout transaction, in product id order so two carts lock shared rows alike
+    private void decrement(List<OrderItem> toReserve, Map<Long, Product> tracked) {
+        for (OrderItem line : toReserve) {
+            if (productRepo.decrementStock(line.getProductId(), line.getQuantity()) == 0) {
+                count("rejected.database");
+                throw outOfStock(tracked.get(line.getProductId()));
+            }
+        }
+        count("reserved");
+    }
+
+    private boolean hold(Product product, int quantity) {
+        AtomicLong held = inFlight.computeIfAbsent(product.getId(), id -> new AtomicLong());
+        long current;
+        do {
+            current = held.get();
+            if (product.getStockQuantity() - current < quantity) {
+                return false;
+            }
+        } while (!held.compareAndSet(current, current + quantity));
+        return true;
+    }
+
+    private void unhold(Hold hold) {
+        AtomicLong held = inFlight.get(hold.productId());
+        if (held != null) {
+            held.addAndGet(-hold.quantity());
+        }
+    }
+
+    private void count(String result) {
+        meterRegistry.counter("inventory.reservations", "result", result).increment();
+    }
+
+    private static IllegalStateException outOfStock(Product product) {
+        return new IllegalStateException("Insufficient stock for product: " + product.getName());
+    }
+
+    @Override
+    @Transactional
+    public int release(Collection<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        int restocked = reservationRepo.releaseOrders(orderIds).size();
+        if (restocked > 0) {
+            catalogCache.invalidate();
+        }
+        return restocked;
+    }
+
+    // Runs inside the status transition's transaction, so the stock comes back if and only if the cancel commits
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.status() != OrderStatus.CANCELLED) {
+            return;
+        }
+        int restocked = release(event.orders().stream().map(OrderStatusChangedEvent.Change::orderId).toList());
+        logger.info("{} cancelled orders released stock on {} products", event.orders().size(), restocked);
+    }
+}
@@ -0,0 +1,155 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.DAO.Cart.CartOrderRepository;
+import com.veterinaire.formulaireveterinaire.DAO.Cart.StatusTransitionRow;
+import com.veterinaire.formulaireveterinaire.DTO.Order.OrderPageResponse;
+import com.veterinaire.formulaireveterinaire.DTO.Order.OrderStatusTransitionResult;
+import com.veterinaire.formulaireveterinaire.DTO.Order.OrderSummaryDto;
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+import com.veterinaire.formulaireveterinaire.Events.OrderStatusChangedEvent;
+import com.veterinaire.formulaireveterinaire.entity.CartOrder;
+import com.veterinaire.formulaireveterinaire.service.OrderService;
+import jakarta.persistence.criteria.Predicate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@RequiredArgsConstructor
+public class OrderServiceImpl implements OrderService {
+
+    public static final int MAX_PAGE_SIZE = 100;
+
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("confirmedAt"), Sort.Order.desc("id"));
+
+    private final CartOrderRepository cartOrderRepo;
+    private final ApplicationEventPublisher events;
+
+    /** Position after the last row of a page; encoded as an opaque base64url token for clients. */
+    private record Cursor(LocalDateTime confirmedAt, Long id) {
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((confirmedAt + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+
+        static Cursor decode(String token) {
+            try {
+                String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+                int separator = raw.indexOf('|');
+                return new Cursor(LocalDateTime.parse(raw.substring(0, separator)),
+                        Long.parseLong(raw.substring(separator + 1)));
+            } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeParseException e) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+        }
+    }
+
+    @Override
+    public OrderPageResponse listOrders(Long userId, OrderStatus status, LocalDate from, LocalDate to,
+                                        String cursor, int size) {
+        if (status == OrderStatus.CART) {
+            throw new IllegalArgumentException("Open carts are not part of the order history");
+        }
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+        Cursor after = cursor != null && !cursor.isBlank() ? Cursor.decode(cursor) : null;
+
+        // One row more than the page tells whether there is a next page, without a COUNT
+        List<CartOrder> rows = cartOrderRepo.findBy(historySpec(userId, status, from, to, after),
+                query -> query.sortBy(NEWEST_FIRST).limit(pageSize + 1).all());
+
+        boolean hasNext = rows.size() > pageSize;
+        List<CartOrder> page = hasNext ? rows.subList(0, pageSize) : rows;
+
+        OrderPageResponse response = new OrderPageResponse();
+        response.setOrders(page.stream().map(OrderServiceImpl::toDto).toList());
+        if (hasNext) {
+            CartOrder last = page.get(page.size() - 1);
+            response.setNextCursor(new Cursor(last.getConfirmedAt(), last.getId()).encode());
+        }
+        return response;
+    }
+
+    @Override
+    @Transactional
+    public OrderStatusTransitionResult transitionStatus(List<Long> orderIds, OrderStatus target) {
+        List<String> sources = target.sources().stream().map(Enum::name).toList();
+        if (sources.isEmpty()) {
+            throw new IllegalArgumentException("No order can be moved to " + target);
+        }
+        Set<Long> requested = new LinkedHashSet<>(orderIds);
+
+        // Guarded set-based update: the status check and the write are one statement, so two admins moving
+        // the same orders concurrently can't both succeed, and there is no per-order read-modify-write
+        List<StatusTransitionRow> updated = cartOrderRepo.transitionStatus(requested, target.name(), sources);
+
+        List<OrderStatusChangedEvent.Change> changes = updated.stream()
+                .map(row -> new OrderStatusChangedEvent.Change(row.getId(), row.getUserId(), row.getOrderNumber()))
+                .toList();
+        if (!changes.isEmpty()) {
+            events.publishEvent(new OrderStatusChangedEvent(target, changes));
+        }
+
+        Set<Long> rejected = new LinkedHashSet<>(requested);
+        changes.forEach(change -> rejected.remove(change.orderId()));
+
+        OrderStatusTransitionResult result = new OrderStatusTransitionResult();
+        result.setTargetStatus(target.name());
+        result.setRequested(requested.size());
+        result.setUpdated(changes.size());
+        result.setRejectedIds(List.copyOf(rejected));
+        return result;
+    }
+
+    private static Specification<CartOrder> historySpec(Long userId, OrderStatus status, LocalDate from, LocalDate to,
+                                                        Cursor after) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(cb.isNotNull(root.get("confirmedAt")));
+            if (userId != null) {
+                predicates.add(cb.equal(root.get("userId"), userId));
+            }
+            if (status != null) {
+                predicates.add(cb.equal(root.get("status"), status));
+            }
+            if (from != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("confirmedAt"), from.atStartOfDay()));
+            }
+            if (to != null) {
+                predicates.add(cb.lessThan(root.get("confirmedAt"), to.plusDays(1).atStartOfDay()));
+            }
+            if (after != null) {
+                // confirmed_at <= :at is the index range bound; the OR only filters rows sharing that timestamp,
+                // so the scan starts at the cursor instead of skipping the previous pages
+                predicates.add(cb.lessThanOrEqualTo(root.get("confirmedAt"), after.confirmedAt()));
+                predicates.add(cb.or(
+                        cb.lessThan(root.get("confirmedAt"), after.confirmedAt()),
+                        cb.lessThan(root.get("id"), after.id())));
+            }
+            return cb.and(predicates.toArray(new Predicate[0]));
+        };
+    }
+
+    private static OrderSummaryDto toDto(CartOrder order) {
+        OrderSummaryDto dto = new OrderSummaryDto();
+        dto.setId(order.getId());
+        dto.setUserId(order.getUserId());
+        dto.setOrderNumber(order.getOrderNumber());
+        dto.setStatus(order.getStatus().name());
+        dto.setTotalAmount(order.getTotalAmount());
+        dto.setConfirmedAt(order.getConfirmedAt());
+        return dto;
+    }
+}
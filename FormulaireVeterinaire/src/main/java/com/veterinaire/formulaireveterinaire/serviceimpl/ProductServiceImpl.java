@@ -1,4 +1,5 @@
 package com.veterinaire.formulaireveterinaire.serviceimpl;
+import com.veterinaire.formulaireveterinaire.Config.CatalogCache;
 import com.veterinaire.formulaireveterinaire.DAO.ProductRepository;
 import com.veterinaire.formulaireveterinaire.entity.Product;
 import com.veterinaire.formulaireveterinaire.service.ProductService;
@@ -21,6 +22,9 @@ public class ProductServiceImpl implements ProductService {
     @Autowired
     private ProductRepository productRepository;
 
+    @Autowired
+    private CatalogCache catalogCache;
+
     @Override
     public List<Product> getAllProducts() {
         return productRepository.findAll();
@@ -52,7 +56,9 @@ public class ProductServiceImpl implements ProductService {
             }
         }
 
-        return productRepository.save(product);
+        Product saved = productRepository.save(product);
+        catalogCache.refresh();
+        return saved;
     }
 
     private String scrapeProductImage(String url) throws IOException {
@@ -155,8 +161,11 @@ public class ProductServiceImpl implements ProductService {
             updatedProduct.setCategory(product.getCategory());
             updatedProduct.setSubCategory(product.getSubCategory());
             updatedProduct.setInStock(product.getInStock());
+            updatedProduct.setStockQuantity(product.getStockQuantity());
             updatedProduct.setDetailsUrl(product.getDetailsUrl());
-            return productRepository.save(updatedProduct);
+            Product saved = productRepository.save(updatedProduct);
+            catalogCache.refresh();
+            return saved;
         }
         throw new RuntimeException("Product not found with id: " + id);
     }
@@ -164,6 +173,7 @@ public class ProductServiceImpl implements ProductService {
     @Override
     public void deleteProduct(Long id) {
         productRepository.deleteById(id);
+        catalogCache.refresh();
     }
 
     @Override
@@ -0,0 +1,89 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.DAO.Sales.SalesRollupRepository;
+import com.veterinaire.formulaireveterinaire.DAO.Sales.SalesTotalsRow;
+import com.veterinaire.formulaireveterinaire.DTO.Sales.CategorySalesDto;
+import com.veterinaire.formulaireveterinaire.DTO.Sales.DailySalesDto;
+import com.veterinaire.formulaireveterinaire.DTO.Sales.ProductSalesDto;
+import com.veterinaire.formulaireveterinaire.Enums.Category;
+import com.veterinaire.formulaireveterinaire.service.SalesRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+@Service
+@RequiredArgsConstructor
+public class SalesRollupServiceImpl implements SalesRollupService {
+
+    public static final int MAX_RANGE_DAYS = 366;
+    public static final int MAX_PRODUCTS = 100;
+
+    private final SalesRollupRepository rollupRepo;
+
+    @Override
+    @Transactional
+    public boolean recordOrder(Long orderId) {
+        return rollupRepo.recordOrder(orderId) > 0;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<DailySalesDto> dailyTotals(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return rollupRepo.totalsByDay(from, to).stream().map(row -> {
+            DailySalesDto dto = new DailySalesDto();
+            dto.setDay(row.getDay());
+            dto.setQuantity(row.getQuantity());
+            dto.setRevenue(row.getRevenue());
+            dto.setOrderCount(row.getOrderCount());
+            return dto;
+        }).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductSalesDto> topProducts(LocalDate from, LocalDate to, Category category, int limit) {
+        checkRange(from, to);
+        int size = Math.max(1, Math.min(limit, MAX_PRODUCTS));
+        return rollupRepo.totalsByProduct(from, to, category, PageRequest.of(0, size)).stream().map(row -> {
+            ProductSalesDto dto = new ProductSalesDto();
+            dto.setProductId(row.getProductId());
+            dto.setProductName(row.getProductName());
+            dto.setCategory(row.getCategory().name());
+            dto.setSubCategory(row.getSubCategory().name());
+            dto.setQuantity(row.getQuantity());
+            dto.setRevenue(row.getRevenue());
+            dto.setOrderCount(row.getOrderCount());
+            return dto;
+        }).toList();
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<CategorySalesDto> categoryTotals(LocalDate from, LocalDate to) {
+        checkRange(from, to);
+        return rollupRepo.totalsByCategory(from, to).stream().map(row -> {
+            CategorySalesDto dto = new CategorySalesDto();
+            dto.setCategory(row.getCategory().name());
+            dto.setSubCategory(row.getSubCategory().name());
+            dto.setQuantity(row.getQuantity());
+            dto.setRevenue(row.getRevenue());
+            return dto;
+        }).toList();
+    }
+
+    // Bounded ranges keep every read to at most MAX_RANGE_DAYS days of rollup rows
+    private static void checkRange(LocalDate from, LocalDate to) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("A valid from/to date range is required");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Date range is limited to " + MAX_RANGE_DAYS + " days");
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.Config.JwtClaims;
+import com.veterinaire.formulaireveterinaire.DAO.RevokedTokenRepository;
+import com.veterinaire.formulaireveterinaire.Utils.BloomFilter;
+import com.veterinaire.formulaireveterinaire.entity.RevokedToken;
+import com.veterinaire.formulaireveterinaire.service.TokenRevocationService;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Denylist of revoked token ids (jti), persisted in {@code revoked_tokens} and mirrored in memory.
+ * A Bloom filter sits in front of the exact set: the common "not revoked" answer costs a few hashes
+ * and no allocation. Revocations written by other instances are picked up every
+ * {@code security.revocation.sync-interval-ms} by polling on revoked_at, so a token logged out elsewhere is
+ * accepted here for at most that long. Expired entries are dropped by the slower compaction, which also
+ * reloads the full list and rebuilds the filter.
+ */
+@Service
+public class TokenRevocationServiceImpl implements TokenRevocationService {
+    private static final Logger logger = LoggerFactory.getLogger(TokenRevocationServiceImpl.class);
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    // jti -> exp (epoch millis)
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter;
+    // Guards writers (revoke vs. filter swap); readers stay lock-free
+    private final ReentrantLock swapLock = new ReentrantLock();
+
+    @Value("${security.revocation.expected-tokens:100000}")
+    private int expectedTokens;
+
+    @Value("${security.revocation.false-positive-rate:0.01}")
+    private double falsePositiveRate;
+
+    // Re-reads a little before the last sync, to tolerate clock skew between instances and late commits
+    @Value("${security.revocation.sync-overlap-ms:30000}")
+    private long syncOverlapMs;
+
+    private volatile Instant lastSync = Instant.EPOCH;
+
+    public TokenRevocationServiceImpl(RevokedTokenRepository revokedTokenRepository) {
+        this.revokedTokenRepository = revokedTokenRepository;
+    }
+
+    @PostConstruct
+    void load() {
+        reload(Instant.now());
+    }
+
+    @Override
+    public void revoke(JwtClaims claims) {
+        if (claims == null || claims.tokenId() == null) {
+            return;
+        }
+        Instant now = Instant.now();
+        if (!claims.expiresAt().isAfter(now)) {
+            return; // already unusable
+        }
+
+        RevokedToken entry = new RevokedToken();
+        entry.setTokenId(claims.tokenId());
+        entry.setExpiresAt(claims.expiresAt());
+        entry.setRevokedAt(now);
+        revokedTokenRepository.save(entry);
+
+        swapLock.lock();
+        try {
+            revoked.put(claims.tokenId(), claims.expiresAt().toEpochMilli());
+            bloomFilter.put(claims.tokenId());
+        } finally {
+            swapLock.unlock();
+        }
+        logger.info("Token {} of {} revoked", claims.tokenId(), claims.email());
+    }
+
+    @Override
+    public boolean isRevoked(String tokenId) {
+        if (!bloomFilter.mightContain(tokenId)) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocation.sync-interval-ms:5000}")
+    public void syncRecent() {
+        Instant now = Instant.now();
+        List<RevokedToken> recent = revokedTokenRepository.findByRevokedAtAfter(lastSync.minusMillis(syncOverlapMs));
+        long nowMillis = now.toEpochMilli();
+        swapLock.lock();
+        try {
+            for (RevokedToken token : recent) {
+                long expiresAt = token.getExpiresAt().toEpochMilli();
+                if (expiresAt > nowMillis && revoked.putIfAbsent(token.getTokenId(), expiresAt) == null) {
+                    bloomFilter.put(token.getTokenId());
+                }
+            }
+        } finally {
+            swapLock.unlock();
+        }
+        lastSync = now;
+    }
+
+    @Scheduled(fixedDelayString = "${security.revocation.compaction-interval-ms:600000}")
+    public void compact() {
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        reload(now);
+        if (deleted > 0) {
+            logger.info("Revocation list compacted: {} expired entries removed, {} still active", deleted, revoked.size());
+        }
+    }
+
+    private void reload(Instant now) {
+        lastSync = now;
+        List<RevokedToken> active = revokedTokenRepository.findByExpiresAtAfter(now);
+        BloomFilter rebuilt = new BloomFilter(Math.max(expectedTokens, active.size() * 2), falsePositiveRate);
+        ConcurrentHashMap<String, Long> fresh = new ConcurrentHashMap<>();
+        for (RevokedToken token : active) {
+            fresh.put(token.getTokenId(), token.getExpiresAt().toEpochMilli());
+            rebuilt.put(token.getTokenId());
+        }
+
+        swapLock.lock();
+        try {
+            // Revocations made while we were reading must survive the swap
+            long nowMillis = now.toEpochMilli();
+            revoked.forEach((tokenId, expiresAt) -> {
+                if (expiresAt > nowMillis && fresh.putIfAbsent(tokenId, expiresAt) == null) {
+                    rebuilt.put(tokenId);
+                }
+            });
+
+            revoked.putAll(fresh);
+            bloomFilter = rebuilt;
+            revoked.keySet().retainAll(fresh.keySet());
+        } finally {
+            swapLock.unlock();
+        }
+    }
+}
@@ -1,38 +1,46 @@
 package com.veterinaire.formulaireveterinaire.serviceimpl;
 
+import com.veterinaire.formulaireveterinaire.Mail.MailTemplateRegistry;
 import com.veterinaire.formulaireveterinaire.DTO.SubscriptionDTO;
 import com.veterinaire.formulaireveterinaire.DTO.UserDTO;
+import com.veterinaire.formulaireveterinaire.Enums.FinanceEventType;
 import com.veterinaire.formulaireveterinaire.Enums.SubscriptionType;
 import com.veterinaire.formulaireveterinaire.DAO.UserRepository;
 import com.veterinaire.formulaireveterinaire.entity.Subscription;
 import com.veterinaire.formulaireveterinaire.entity.User;
 import com.veterinaire.formulaireveterinaire.entity.VeterinaireProfile;
 import com.veterinaire.formulaireveterinaire.service.VeterinaireService;
-import jakarta.mail.MessagingException;
-import jakarta.mail.internet.MimeMessage;
+import com.veterinaire.formulaireveterinaire.service.EmailOutboxService;
+import com.veterinaire.formulaireveterinaire.service.FinanceNotificationService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.mail.javamail.JavaMailSender;
-import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
 import java.io.IOException;
 import java.time.LocalDate;
+import java.util.Map;
 
 
 @Service
 public class VeterinaireServiceImpl implements VeterinaireService {
     private static final Logger logger = LoggerFactory.getLogger(VeterinaireServiceImpl.class);
     private final UserRepository userRepository;
-    private final JavaMailSender mailSender;
+    private final EmailOutboxService emailOutbox;
+    private final MailTemplateRegistry mailTemplates;
+    private final FinanceNotificationService financeNotifications;
 
 
-    public VeterinaireServiceImpl(UserRepository userRepository, JavaMailSender mailSender) {
+    public VeterinaireServiceImpl(UserRepository userRepository, EmailOutboxService emailOutbox,
+                                  MailTemplateRegistry mailTemplates,
+                                  FinanceNotificationService financeNotifications) {
         this.userRepository = userRepository;
-        this.mailSender = mailSender;
+        this.emailOutbox = emailOutbox;
+        this.mailTemplates = mailTemplates;
+        this.financeNotifications = financeNotifications;
 
     }
 
@@ -41,6 +49,7 @@ public class VeterinaireServiceImpl implements VeterinaireService {
 
 
     @Override
+    @Transactional
     public String updateVeterinaireProfile(Long userId, MultipartFile image, SubscriptionType subscriptionType) {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new RuntimeException("Utilisateur non trouvé avec l'ID : " + userId));
@@ -69,7 +78,9 @@ public class VeterinaireServiceImpl implements VeterinaireService {
             logger.info("Subscription type {} set for user ID: {}", subscriptionType, userId);
         }
         userRepository.save(user);
-        sendSubscriptionEmail(user.getEmail(), user.getNom(),subscriptionType.name(), financeEmail);
+        String financeCc = financeNotifications.notifyFinance(FinanceEventType.SUBSCRIPTION_REQUESTED, user.getEmail(),
+                user.getNom(), subscriptionType.name(), null);
+        sendSubscriptionEmail(user.getEmail(), user.getNom(),subscriptionType.name(), financeCc);
         return "Profil vétérinaire mis à jour avec succès pour l'utilisateur ID " + userId + ".";
     }
 
@@ -118,99 +129,32 @@ public class VeterinaireServiceImpl implements VeterinaireService {
 
 
 
-    private void sendSubscriptionEmail(String to, String nom, String subscriptionType, String financeEmail) {
-        MimeMessage message = mailSender.createMimeMessage();
+    private void sendSubscriptionEmail(String to, String nom, String subscriptionType, String ccEmail) {
+        String duree;
+        switch (subscriptionType) {
+            case "ONE_MONTH":
+                duree = "1 mois";
+                break;
+            case "THREE_MONTHS":
+                duree = "3 mois";
+                break;
+            case "SIX_MONTHS":
+                duree = "6 mois";
+                break;
+            default:
+                duree = "abonnement inconnu";
+        }
 
-        try {
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
-            helper.setTo(to);
-            helper.setCc(financeEmail);
-            helper.setSubject("Confirmation de votre abonnement – VITALFEED");
+        String htmlContent = mailTemplates.render("veterinaire-subscription", Map.of(
+                "nom", nom,                   // Dr [Nom]
+                "duree", duree,               // Duration (1 mois, 3 mois, etc.)
+                "financeEmail", financeEmail,
+                "year", LocalDate.now().getYear()
+        ));
 
-            String duree;
-            switch (subscriptionType) {
-                case "ONE_MONTH":
-                    duree = "1 mois";
-                    break;
-                case "THREE_MONTHS":
-                    duree = "3 mois";
-                    break;
-                case "SIX_MONTHS":
-                    duree = "6 mois";
-                    break;
-                default:
-                    duree = "abonnement inconnu";
-            }
+        emailOutbox.enqueue(to, ccEmail, "Confirmation de votre abonnement – VITALFEED", htmlContent);
 
-            String htmlContent = """
-            <html>
-            <body style="margin:0; padding:0; background-color:#f4f6f8; font-family:'Segoe UI',Roboto,Helvetica,Arial,sans-serif; color:#333;">
-                <table align="center" width="100%%" cellpadding="0" cellspacing="0" style="max-width:650px; margin:auto; background-color:#ffffff; border-radius:10px; overflow:hidden; box-shadow:0 4px 10px rgba(0,0,0,0.05);">
-                    <!-- Header -->
-                    <tr>
-                        <td style="background-color:#00897B; padding:25px 40px; text-align:center;">
-                            <h1 style="margin:0; color:#ffffff; font-size:24px; letter-spacing:0.5px;">VITALFEED</h1>
-                            <p style="color:#dff9f3; margin:5px 0 0; font-size:14px;">Simplifiez et modernisez votre pratique vétérinaire dès aujourd’hui</p>
-                        </td>
-                    </tr>
-
-                    <!-- Body -->
-                    <tr>
-                        <td style="padding:40px;">
-                                <h2 style="color:#2c3e50;">Contactez notre service financier pour finaliser votre abonnement</h2>
-                                <p style="font-size:15px; line-height:1.6;">
-                                Bonjour Dr <strong>%s</strong>,<br><br>
-                                Nous avons bien reçu votre demande d’abonnement au plan <strong>%s</strong> sur la plateforme <strong>VITALFEED</strong>.
-                            </p>
-
-                            <!-- Next Steps -->
-                            <div style="margin-top:25px;">
-                                <h3 style="color:#00897B; font-size:17px; border-bottom:2px solid #eaf0f6; padding-bottom:6px;">Prochaine étape :</h3>
-                                <p style="font-size:15px; line-height:1.6;">
-                                    Afin de finaliser votre inscription, veuillez contacter notre service financier à l’adresse suivante :
-                                </p>
-                                <p style="font-size:16px; text-align:center; margin:20px 0;">
-                                    <a href="mailto:%s" style="color:#00897B; font-weight:bold; text-decoration:none;">%s</a>
-                                </p>
-                                <p style="font-size:14px; color:#777;">
-                                    Notre équipe vous expliquera les étapes à suivre pour effectuer votre paiement et activer votre abonnement.
-                                </p>
-                            </div>
-
-                            <div style="margin-top:35px;">
-                                <p style="font-size:15px;">Nous vous remercions pour votre confiance et sommes ravis de vous compter parmi les vétérinaires utilisateurs de <strong>VITALFEED</strong> 🐾</p>
-                                <p style="margin-top:20px; font-weight:600;">Bien cordialement,</p>
-                                <p style="margin-top:5px; color:#00897B; font-weight:700;">L’équipe VITALFEED</p>
-                            </div>
-                        </td>
-                    </tr>
-
-                    <!-- Footer -->
-                    <tr>
-                        <td style="background-color:#f0f3f7; padding:15px 30px; text-align:center; font-size:12px; color:#777;">
-                            Cet e-mail a été envoyé automatiquement, merci de ne pas y répondre directement.<br>
-                            © %s VITALFEED – Tous droits réservés.
-                        </td>
-                    </tr>
-                </table>
-            </body>
-            </html>
-            """.formatted(
-                    nom,                   // Dr [Nom]
-                    duree,                 // Duration (1 mois, 3 mois, etc.)
-                    financeEmail,
-                    financeEmail,
-                    String.valueOf(LocalDate.now().getYear())
-            );
-
-            helper.setText(htmlContent, true);
-            mailSender.send(message);
-
-            logger.info("Subscription confirmation email sent to {}", to);
-        } catch (MessagingException e) {
-            logger.error("Failed to send subscription email to {}: {}", to, e.getMessage());
-            throw new RuntimeException("Erreur lors de l'envoi de l'e-mail de confirmation d'abonnement", e);
-        }
+        logger.info("Subscription confirmation email queued for {}", to);
     }
 
 }
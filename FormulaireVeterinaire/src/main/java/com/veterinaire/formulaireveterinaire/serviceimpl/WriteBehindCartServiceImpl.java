@@ -0,0 +1,590 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.DAO.Cart.CartOrderRepository;
+import com.veterinaire.formulaireveterinaire.DAO.Cart.OrderItemRepository;
+import com.veterinaire.formulaireveterinaire.DAO.ProductRepository;
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartItemDto;
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartItemRequest;
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartOperationRequest;
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartResponse;
+import com.veterinaire.formulaireveterinaire.Enums.CartOperationType;
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+import com.veterinaire.formulaireveterinaire.entity.CartOrder;
+import com.veterinaire.formulaireveterinaire.entity.OrderItem;
+import com.veterinaire.formulaireveterinaire.entity.Product;
+import com.veterinaire.formulaireveterinaire.service.CartService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Optional cart store ({@code cart.store=write-behind}): open carts live in memory, keyed by userId, and reach
+ * Postgres as coalesced writes. Dirty carts are flushed every {@code cart.write-behind.flush-interval-ms}, the
+ * user's cart is flushed before checkout, and all carts are flushed on shutdown. Checkout itself is delegated
+ * to {@link CartServiceImpl} once the cart is in the database.
+ * <p>
+ * Mutations of one user serialize on a lock stripe ({@link ReentrantLock}, so virtual threads are not pinned);
+ * users on different stripes never contend. Flushes write outside the stripe, under a per-cart lock.
+ * Lines are keyed by product (one line per product, as in the database). Until its first flush, a new line is
+ * exposed with itemId {@code -productId}; that id keeps resolving after the line gets its database id.
+ * <p>
+ * Trade-off: mutations acknowledged but not flushed yet are lost if the process dies without a clean shutdown,
+ * and the store is per instance, so this mode is for single-node deployments.
+ */
+@Service
+@Primary
+@ConditionalOnProperty(name = "cart.store", havingValue = "write-behind")
+public class WriteBehindCartServiceImpl implements CartService {
+    private static final Logger logger = LoggerFactory.getLogger(WriteBehindCartServiceImpl.class);
+
+    private final CartServiceImpl databaseCarts;
+    private final CartOrderRepository cartOrderRepo;
+    private final OrderItemRepository itemRepo;
+    private final ProductRepository productRepo;
+    private final TransactionTemplate transactionTemplate;
+
+    private final ConcurrentHashMap<Long, MemoryCart> carts = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes;
+
+    private final Counter flushes;
+    private final Counter flushFailures;
+
+    @Value("${cart.write-behind.idle-evict-ms:1800000}")
+    private long idleEvictMs;
+
+    public WriteBehindCartServiceImpl(CartServiceImpl databaseCarts,
+                                      CartOrderRepository cartOrderRepo,
+                                      OrderItemRepository itemRepo,
+                                      ProductRepository productRepo,
+                                      PlatformTransactionManager transactionManager,
+                                      MeterRegistry meterRegistry,
+                                      @Value("${cart.write-behind.stripes:64}") int stripeCount) {
+        this.databaseCarts = databaseCarts;
+        this.cartOrderRepo = cartOrderRepo;
+        this.itemRepo = itemRepo;
+        this.productRepo = productRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+
+        // Power of two so the stripe is a mask of the spread hash
+        int size = Integer.highestOneBit(Math.max(1, stripeCount - 1)) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+
+        this.flushes = Counter.builder("cart.write-behind.flushes").register(meterRegistry);
+        this.flushFailures = Counter.builder("cart.write-behind.flush.failures").register(meterRegistry);
+        meterRegistry.gauge("cart.write-behind.carts", carts, ConcurrentHashMap::size);
+    }
+
+    /** One product line. Mutable, guarded by the stripe of its cart. */
+    private static final class Line {
+        final Long productId;
+        final String productName;
+        final String imageUrl;
+        final BigDecimal price;
+        Long itemId;              // database id, null until the first flush that inserted it
+        int quantity;
+
+        Line(Long productId, String productName, String imageUrl, BigDecimal price, Long itemId, int quantity) {
+            this.productId = productId;
+            this.productName = productName;
+            this.imageUrl = imageUrl;
+            this.price = price;
+            this.itemId = itemId;
+            this.quantity = quantity;
+        }
+
+        Line copy() {
+            return new Line(productId, productName, imageUrl, price, itemId, quantity);
+        }
+
+        long exposedId() {
+            return itemId != null ? itemId : -productId;
+        }
+    }
+
+    /** Immutable view of a cart taken under its stripe, written to the database outside of it. */
+    private record Snapshot(Long cartId, long version, Map<Long, Integer> quantities, Map<Long, BigDecimal> prices,
+                            BigDecimal total) {}
+
+    private static final class MemoryCart {
+        final Long userId;
+        final Long cartId;
+        final ReentrantLock flushLock = new ReentrantLock();
+        Map<Long, Line> lines = new LinkedHashMap<>();   // by productId
+        long version;                                    // bumped by every mutation
+        long flushedVersion;                             // guarded by the stripe
+        long writtenVersion;                             // guarded by flushLock
+        long lastAccess = System.currentTimeMillis();
+        volatile boolean closed;                         // checked out or evicted: no longer in the map
+
+        MemoryCart(Long userId, Long cartId) {
+            this.userId = userId;
+            this.cartId = cartId;
+        }
+
+        boolean isDirty() {
+            return version != flushedVersion;
+        }
+
+        void touch() {
+            version++;
+            lastAccess = System.currentTimeMillis();
+        }
+
+        Line resolve(Long itemId, String notFoundMessage) {
+            if (itemId != null) {
+                for (Line line : lines.values()) {
+                    if (line.exposedId() == itemId || -line.productId == itemId) {
+                        return line;
+                    }
+                }
+            }
+            throw new EntityNotFoundException(notFoundMessage);
+        }
+
+        BigDecimal total() {
+            BigDecimal total = BigDecimal.ZERO;
+            for (Line line : lines.values()) {
+                total = total.add(line.price.multiply(BigDecimal.valueOf(line.quantity)));
+            }
+            return total;
+        }
+
+        Snapshot snapshot() {
+            Map<Long, Integer> quantities = new LinkedHashMap<>();
+            Map<Long, BigDecimal> prices = new HashMap<>();
+            for (Line line : lines.values()) {
+                quantities.put(line.productId, line.quantity);
+                prices.put(line.productId, line.price);
+            }
+            return new Snapshot(cartId, version, quantities, prices, total());
+        }
+    }
+
+    private ReentrantLock stripeOf(Long userId) {
+        int h = Long.hashCode(userId);
+        return stripes[(h ^ (h >>> 16)) & (stripes.length - 1)];
+    }
+
+    // --- Must be called with the user's stripe held: one loader per user, later calls are a map lookup ---
+    private MemoryCart cartOf(Long userId) {
+        MemoryCart cart = carts.get(userId);
+        if (cart == null) {
+            cart = load(userId);
+            carts.put(userId, cart);
+        }
+        return cart;
+    }
+
+    private MemoryCart load(Long userId) {
+        CartOrder order = cartOrderRepo.findByUserIdAndStatus(userId, OrderStatus.CART)
+                .orElseGet(() -> {
+                    cartOrderRepo.insertCartIfAbsent(userId);
+                    return cartOrderRepo.findByUserIdAndStatus(userId, OrderStatus.CART)
+                            .orElseThrow(() -> new IllegalStateException("Cart could not be created for user " + userId));
+                });
+
+        MemoryCart cart = new MemoryCart(userId, order.getId());
+        List<OrderItem> items = itemRepo.findByOrderId(order.getId());
+        if (!items.isEmpty()) {
+            Map<Long, Product> products = productRepo.findAllById(
+                            items.stream().map(OrderItem::getProductId).collect(Collectors.toSet())).stream()
+                    .collect(Collectors.toMap(Product::getId, Function.identity()));
+            for (OrderItem item : items) {
+                Product product = products.get(item.getProductId());
+                if (product == null) {
+                    throw new EntityNotFoundException("Product not found: " + item.getProductId());
+                }
+                cart.lines.put(item.getProductId(), new Line(item.getProductId(), product.getName(),
+                        product.getImageUrl(), item.getPrice(), item.getId(), item.getQuantity()));
+            }
+        }
+        return cart;
+    }
+
+    private static CartItemDto toDto(Line line) {
+        CartItemDto dto = new CartItemDto();
+        dto.setItemId(line.exposedId());
+        dto.setProductId(line.productId);
+        dto.setProductName(line.productName);
+        dto.setImageUrl(line.imageUrl);
+        dto.setQuantity(line.quantity);
+        dto.setPrice(line.price);
+        dto.setSubTotal(line.price.multiply(BigDecimal.valueOf(line.quantity)));
+        return dto;
+    }
+
+    private static CartResponse toResponse(MemoryCart cart) {
+        CartResponse resp = new CartResponse();
+        resp.setCartId(cart.cartId);
+        resp.setTotalAmount(cart.total());
+        resp.setItems(cart.lines.values().stream().map(WriteBehindCartServiceImpl::toDto).toList());
+        return resp;
+    }
+
+    @Override
+    public CartResponse getCart(Long userId) {
+        ReentrantLock stripe = stripeOf(userId);
+        stripe.lock();
+        try {
+            MemoryCart cart = cartOf(userId);
+            cart.lastAccess = System.currentTimeMillis();
+            return toResponse(cart);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public CartItemDto addItem(Long userId, CartItemRequest req) {
+        ReentrantLock stripe = stripeOf(userId);
+        stripe.lock();
+        try {
+            // Product already in the cart: pure memory update
+            MemoryCart cart = cartOf(userId);
+            Line line = cart.lines.get(req.getProductId());
+            if (line != null) {
+                line.quantity += req.getQuantity();
+                cart.touch();
+                return toDto(line);
+            }
+        } finally {
+            stripe.unlock();
+        }
+
+        // New product: its name, image and price are read once, outside the stripe
+        Product product = productRepo.findById(req.getProductId())
+                .orElseThrow(() -> new EntityNotFoundException("Product not found: " + req.getProductId()));
+
+        stripe.lock();
+        try {
+            MemoryCart cart = cartOf(userId);
+            Line line = cart.lines.computeIfAbsent(product.getId(), id -> new Line(id, product.getName(),
+                    product.getImageUrl(), product.getPrice(), null, 0));
+            line.quantity += req.getQuantity();
+            cart.touch();
+            return toDto(line);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public CartItemDto updateItem(Long userId, Long itemId, Integer quantity) {
+        ReentrantLock stripe = stripeOf(userId);
+        stripe.lock();
+        try {
+            MemoryCart cart = cartOf(userId);
+            Line line = cart.resolve(itemId, "Cart item not found");
+            cart.touch();
+            if (quantity <= 0) {
+                cart.lines.remove(line.productId);
+                return null;
+            }
+            line.quantity = quantity;
+            return toDto(line);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public void removeItem(Long userId, Long itemId) {
+        ReentrantLock stripe = stripeOf(userId);
+        stripe.lock();
+        try {
+            MemoryCart cart = cartOf(userId);
+            Line line = cart.resolve(itemId, "Item not found");
+            cart.lines.remove(line.productId);
+            cart.touch();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public void clearCart(Long userId) {
+        ReentrantLock stripe = stripeOf(userId);
+        stripe.lock();
+        try {
+            MemoryCart cart = cartOf(userId);
+            cart.lines.clear();
+            cart.touch();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public CartResponse applyOperations(Long userId, List<CartOperationRequest> operations) {
+        // Products of every ADD in one query, outside the stripe
+        Set<Long> productIds = new HashSet<>();
+        for (CartOperationRequest op : operations) {
+            if (op.getType() == CartOperationType.ADD && op.getProductId() != null) {
+                productIds.add(op.getProductId());
+            }
+        }
+        Map<Long, Product> products = productIds.isEmpty() ? Map.of() : productRepo.findAllById(productIds).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+
+        ReentrantLock stripe = stripeOf(userId);
+        stripe.lock();
+        try {
+            MemoryCart cart = cartOf(userId);
+
+            // Applied to a copy: a bad operation leaves the cart untouched
+            Map<Long, Line> lines = new LinkedHashMap<>();
+            cart.lines.forEach((productId, line) -> lines.put(productId, line.copy()));
+            MemoryCart working = new MemoryCart(userId, cart.cartId);
+            working.lines = lines;
+
+            for (CartOperationRequest op : operations) {
+                switch (op.getType()) {
+                    case ADD -> {
+                        if (op.getProductId() == null || op.getQuantity() == null || op.getQuantity() < 1) {
+                            throw new IllegalArgumentException("ADD requires productId and quantity >= 1");
+                        }
+                        Product product = products.get(op.getProductId());
+                        if (product == null) {
+                            throw new EntityNotFoundException("Product not found: " + op.getProductId());
+                        }
+                        Line line = lines.computeIfAbsent(product.getId(), id -> new Line(id, product.getName(),
+                                product.getImageUrl(), product.getPrice(), null, 0));
+                        line.quantity += op.getQuantity();
+                    }
+                    case UPDATE -> {
+                        if (op.getQuantity() == null) {
+                            throw new IllegalArgumentException("UPDATE requires quantity");
+                        }
+                        Line line = working.resolve(op.getItemId(), "Cart item not found: " + op.getItemId());
+                        if (op.getQuantity() <= 0) {
+                            lines.remove(line.productId);
+                        } else {
+                            line.quantity = op.getQuantity();
+                        }
+                    }
+                    case REMOVE -> {
+                        Line line = working.resolve(op.getItemId(), "Cart item not found: " + op.getItemId());
+                        lines.remove(line.productId);
+                    }
+                }
+            }
+
+            cart.lines = lines;
+            cart.touch();
+            return toResponse(cart);
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    @Override
+    public String checkout(Long userId) {
+        // The stripe is held through the checkout so no mutation of this user can slip between flush and confirm.
+        // Lock order is stripe -> flushLock; the background flush never holds both at once.
+        ReentrantLock stripe = stripeOf(userId);
+        stripe.lock();
+        try {
+            MemoryCart cart = carts.get(userId);
+            if (cart == null) {
+                return databaseCarts.checkout(userId);
+            }
+
+            cart.flushLock.lock();
+            try {
+                if (cart.isDirty()) {
+                    Snapshot snapshot = cart.snapshot();
+                    Map<Long, Long> ids = write(snapshot);
+                    if (ids == null) {
+                        carts.remove(userId, cart);
+                        cart.closed = true;
+                        throw new IllegalStateException("Cart is no longer open");
+                    }
+                    applyIds(cart, ids);
+                    cart.writtenVersion = snapshot.version();
+                    cart.flushedVersion = snapshot.version();
+                }
+                String orderNumber = databaseCarts.checkout(userId);
+                carts.remove(userId, cart);
+                cart.closed = true;
+                return orderNumber;
+            } finally {
+                cart.flushLock.unlock();
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    // --- Background write-behind ---
+
+    @Scheduled(fixedDelayString = "${cart.write-behind.flush-interval-ms:2000}")
+    public void flushDirtyCarts() {
+        long now = System.currentTimeMillis();
+        for (MemoryCart cart : carts.values()) {
+            flush(cart);
+            evictIfIdle(cart, now);
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        int dirty = 0;
+        for (MemoryCart cart : carts.values()) {
+            if (flush(cart)) {
+                dirty++;
+            }
+        }
+        logger.info("Write-behind cart store shut down, {} dirty carts flushed", dirty);
+    }
+
+    /**
+     * @return true if a write happened
+     */
+    private boolean flush(MemoryCart cart) {
+        Snapshot snapshot;
+        ReentrantLock stripe = stripeOf(cart.userId);
+        stripe.lock();
+        try {
+            if (cart.closed || !cart.isDirty()) {
+                return false;
+            }
+            snapshot = cart.snapshot();
+        } finally {
+            stripe.unlock();
+        }
+
+        Map<Long, Long> ids;
+        cart.flushLock.lock();
+        try {
+            // A checkout or a newer flush got there first
+            if (cart.closed || snapshot.version() <= cart.writtenVersion) {
+                return false;
+            }
+            ids = write(snapshot);
+            cart.writtenVersion = snapshot.version();
+        } catch (RuntimeException e) {
+            flushFailures.increment();
+            logger.error("Write-behind flush of cart {} failed, retried next round: {}", cart.cartId, e.getMessage());
+            return false;
+        } finally {
+            cart.flushLock.unlock();
+        }
+
+        stripe.lock();
+        try {
+            if (ids == null) {
+                // The order is no longer an open cart (confirmed outside this store): drop the stale copy
+                logger.warn("Cart {} of user {} is no longer open, in-memory copy discarded", cart.cartId, cart.userId);
+                carts.remove(cart.userId, cart);
+                cart.closed = true;
+                return false;
+            }
+            applyIds(cart, ids);
+            cart.flushedVersion = Math.max(cart.flushedVersion, snapshot.version());
+        } finally {
+            stripe.unlock();
+        }
+        return true;
+    }
+
+    private void evictIfIdle(MemoryCart cart, long now) {
+        ReentrantLock stripe = stripeOf(cart.userId);
+        stripe.lock();
+        try {
+            if (!cart.closed && !cart.isDirty() && now - cart.lastAccess > idleEvictMs) {
+                carts.remove(cart.userId, cart);
+                cart.closed = true;
+            }
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private static void applyIds(MemoryCart cart, Map<Long, Long> ids) {
+        for (Line line : cart.lines.values()) {
+            if (line.itemId == null) {
+                line.itemId = ids.get(line.productId);
+            }
+        }
+    }
+
+    /**
+     * Writes the snapshot as one transaction: the total first (guarded on the CART status, which also locks the
+     * order row against a concurrent checkout), then the line diff.
+     *
+     * @return productId -> item id of every written line, or null if the order is no longer an open cart
+     */
+    private Map<Long, Long> write(Snapshot snapshot) {
+        Map<Long, Long> ids = transactionTemplate.execute(status -> {
+            if (cartOrderRepo.updateTotalIfStatus(snapshot.cartId(), snapshot.total(), OrderStatus.CART) == 0) {
+                status.setRollbackOnly();
+                return null;
+            }
+
+            Map<Long, OrderItem> existing = new HashMap<>();
+            for (OrderItem item : itemRepo.findByOrderId(snapshot.cartId())) {
+                existing.put(item.getProductId(), item);
+            }
+
+            List<OrderItem> toSave = new ArrayList<>();
+            boolean inserts = false;
+            for (Map.Entry<Long, Integer> entry : snapshot.quantities().entrySet()) {
+                OrderItem item = existing.remove(entry.getKey());
+                if (item == null) {
+                    item = new OrderItem();
+                    item.setOrderId(snapshot.cartId());
+                    item.setProductId(entry.getKey());
+                    item.setPrice(snapshot.prices().get(entry.getKey()));
+                    item.setQuantity(entry.getValue());
+                    toSave.add(item);
+                    inserts = true;
+                } else if (!item.getQuantity().equals(entry.getValue())) {
+                    item.setQuantity(entry.getValue());
+                    toSave.add(item);
+                }
+            }
+
+            itemRepo.deleteAll(existing.values());
+            if (inserts && !existing.isEmpty()) {
+                itemRepo.flush();
+            }
+            itemRepo.saveAll(toSave);
+
+            Map<Long, Long> written = new HashMap<>();
+            for (OrderItem item : toSave) {
+                written.put(item.getProductId(), item.getId());
+            }
+            return written;
+        });
+        if (ids != null) {
+            flushes.increment();
+        }
+        return ids;
+    }
+}
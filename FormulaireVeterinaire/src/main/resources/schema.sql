@@ -0,0 +1,29 @@
+-- Exécuté après la mise à jour du schéma par Hibernate (spring.jpa.defer-datasource-initialization=true).
+-- Chaque instruction est idempotente : le script est rejoué à chaque démarrage. Les reprises de données
+-- coûteuses ne s'exécutent qu'une fois : elles sont conditionnées par une ligne de schema_migrations insérée
+-- dans la même instruction, donc atomiquement.
+CREATE TABLE IF NOT EXISTS schema_migrations (id VARCHAR(100) PRIMARY KEY, applied_at TIMESTAMP NOT NULL);
+
+-- Un seul panier ouvert par utilisateur : les paniers en double sont fusionnés dans le plus ancien
+UPDATE order_items i SET order_id = d.keep_id FROM (SELECT id, MIN(id) OVER (PARTITION BY user_id) AS keep_id FROM orders WHERE status = 'CART') d WHERE i.order_id = d.id AND d.id <> d.keep_id;
+DELETE FROM orders o USING (SELECT id, MIN(id) OVER (PARTITION BY user_id) AS keep_id FROM orders WHERE status = 'CART') d WHERE o.id = d.id AND d.id <> d.keep_id;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_orders_open_cart ON orders (user_id) WHERE status = 'CART';
+
+-- Une seule ligne par produit dans une commande : les doublons sont fusionnés (quantités additionnées,
+-- prix moyen pondéré pour conserver le montant) dans la plus ancienne ligne
+UPDATE order_items i SET quantity = d.total_quantity, price = d.average_price FROM (SELECT MIN(id) AS keep_id, SUM(quantity) AS total_quantity, ROUND(SUM(price * quantity) / NULLIF(SUM(quantity), 0), 2) AS average_price FROM order_items GROUP BY order_id, product_id HAVING COUNT(*) > 1) d WHERE i.id = d.keep_id AND d.average_price IS NOT NULL;
+DELETE FROM order_items i USING (SELECT id, MIN(id) OVER (PARTITION BY order_id, product_id) AS keep_id FROM order_items) d WHERE i.id = d.id AND d.id <> d.keep_id;
+CREATE UNIQUE INDEX IF NOT EXISTS ux_order_items_order_product ON order_items (order_id, product_id);
+
+-- Purge des paniers abandonnés : date de dernière modification (les paniers existants repartent de maintenant)
+-- et index partiel parcouru par id pour les lots de suppression
+UPDATE orders SET updated_at = COALESCE(confirmed_at, now()) WHERE updated_at IS NULL;
+CREATE INDEX IF NOT EXISTS idx_orders_cart_updated ON orders (id, updated_at) WHERE status = 'CART';
+
+-- Agrégats de ventes journaliers : une ligne par (jour, produit), puis reprise unique des commandes déjà
+-- confirmées (même instruction que SalesRollupRepository.recordOrder, sans filtre sur l'id). Une fois la ligne
+-- 'sales_rollup_backfill' présente, l'instruction ne lit plus la table orders au démarrage. Pour rattraper des
+-- agrégats perdus (arrêt pendant le pipeline de checkout), supprimer cette ligne et redémarrer : les commandes
+-- déjà comptées sont ignorées grâce à sales_rollup_orders
+CREATE UNIQUE INDEX IF NOT EXISTS ux_sales_daily_rollup_day_product ON sales_daily_rollup (day, product_id);
+WITH migration AS (INSERT INTO schema_migrations (id, applied_at) VALUES ('sales_rollup_backfill', now()) ON CONFLICT (id) DO NOTHING RETURNING id), claimed AS (INSERT INTO sales_rollup_orders (order_id, applied_at) SELECT o.id, now() FROM orders o WHERE o.confirmed_at IS NOT NULL AND EXISTS (SELECT 1 FROM migration) ON CONFLICT (order_id) DO NOTHING RETURNING order_id) INSERT INTO sales_daily_rollup (day, product_id, category, sub_category, quantity, revenue, order_count) SELECT CAST(o.confirmed_at AS date), i.product_id, p.category, p.sub_category, SUM(i.quantity), SUM(i.price * i.quantity), COUNT(DISTINCT o.id) FROM claimed c JOIN orders o ON o.id = c.order_id JOIN order_items i ON i.order_id = o.id JOIN products p ON p.id = i.product_id GROUP BY CAST(o.confirmed_at AS date), i.product_id, p.category, p.sub_category ON CONFLICT (day, product_id) DO UPDATE SET quantity = sales_daily_rollup.quantity + EXCLUDED.quantity, revenue = sales_daily_rollup.revenue + EXCLUDED.revenue, order_count = sales_daily_rollup.order_count + EXCLUDED.order_count;
@@ -0,0 +1,82 @@
+package com.veterinaire.formulaireveterinaire.Config;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.veterinaire.formulaireveterinaire.DAO.ProductRepository;
+import com.veterinaire.formulaireveterinaire.Enums.Category;
+import com.veterinaire.formulaireveterinaire.Enums.SubCategory;
+import com.veterinaire.formulaireveterinaire.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CatalogCacheTest {
+
+    @Mock private ProductRepository productRepository;
+
+    private final List<Product> products = new ArrayList<>();
+    private CatalogCache catalogCache;
+
+    @BeforeEach
+    void setUp() {
+        catalogCache = new CatalogCache(productRepository, new ObjectMapper(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(catalogCache, "gzip", true);
+        ReflectionTestUtils.setField(catalogCache, "minRebuildIntervalMs", 0L);
+        products.add(product(1L, Category.CHIEN));
+        products.add(product(2L, Category.CHAT));
+        when(productRepository.findAll()).thenAnswer(invocation -> List.copyOf(products));
+    }
+
+    private static Product product(Long id, Category category) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Produit " + id);
+        product.setPrice(BigDecimal.TEN);
+        product.setCategory(category);
+        product.setSubCategory(SubCategory.values()[0]);
+        product.setInStock(true);
+        return product;
+    }
+
+    @Test
+    void readsAreServedFromOneSnapshot() throws Exception {
+        CatalogCache.Payload all = catalogCache.all();
+        catalogCache.category("CHAT");
+        catalogCache.subCategory(SubCategory.values()[0].name());
+        assertEquals("[]", new String(catalogCache.category("INCONNUE").json()));
+
+        verify(productRepository, times(1)).findAll();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(all.gzip()))) {
+            assertArrayEquals(all.json(), in.readAllBytes());
+        }
+    }
+
+    @Test
+    void changesSwapTheSnapshotAndTheEtag() {
+        String before = catalogCache.all().etag();
+
+        products.add(product(3L, Category.CHAT));
+        catalogCache.refresh();
+        CatalogCache.Payload after = catalogCache.all();
+
+        assertNotEquals(before, after.etag());
+        assertTrue(new String(catalogCache.category("CHAT").json()).contains("Produit 3"));
+
+        catalogCache.invalidate();
+        catalogCache.all();
+        verify(productRepository, times(3)).findAll();
+    }
+}
@@ -0,0 +1,45 @@
+package com.veterinaire.formulaireveterinaire.Config;
+
+import com.veterinaire.formulaireveterinaire.Enums.EndpointPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EndpointPolicyRegistryTest {
+
+    private final EndpointPolicyRegistry registry = new EndpointPolicyRegistry();
+
+    @Test
+    void openPathsMatchExactlyInTheFilterAsInTheChain() {
+        assertEquals(EndpointPolicy.PUBLIC, registry.resolve("/api/products/all"));
+        assertEquals(EndpointPolicy.SUBSCRIPTION_REQUIRED, registry.resolve("/api/products/all/x"));
+        assertEquals(EndpointPolicy.TOKEN_OPTIONAL, registry.resolve("/api/logout"));
+        assertEquals(EndpointPolicy.SUBSCRIPTION_REQUIRED, registry.resolve("/api/logout/x"));
+
+        List<String> open = List.of(registry.openPatterns());
+        assertTrue(open.contains("/api/products/all"));
+        assertTrue(open.contains("/api/logout"));
+        assertTrue(open.stream().noneMatch(pattern -> pattern.contains("*")));
+    }
+
+    @Test
+    void prefixesMatchOnSegmentBoundaries() {
+        assertEquals(EndpointPolicy.AUTHENTICATED, registry.resolve("/api/cart"));
+        assertEquals(EndpointPolicy.AUTHENTICATED, registry.resolve("/api/cart/items"));
+        assertEquals(EndpointPolicy.SUBSCRIPTION_REQUIRED, registry.resolve("/api/cartx"));
+    }
+
+    @Test
+    void adminRulesComeFromTheRegistry() {
+        assertEquals(EndpointPolicy.ADMIN, registry.resolve("/api/users/42"));
+        assertEquals(EndpointPolicy.PUBLIC, registry.resolve("/api/users/register"));
+        assertEquals(EndpointPolicy.ADMIN, registry.resolve("/api/orders/admin/status"));
+        assertEquals(EndpointPolicy.AUTHENTICATED, registry.resolve("/api/orders/history"));
+        assertEquals(EndpointPolicy.ADMIN, registry.resolve("/actuator/metrics"));
+
+        List<String> admin = List.of(registry.adminPatterns());
+        assertTrue(admin.containsAll(List.of("/api/users/**", "/api/orders/admin/**", "/api/sales/**", "/actuator/**")));
+    }
+}
@@ -0,0 +1,75 @@
+package com.veterinaire.formulaireveterinaire.Events;
+
+import com.veterinaire.formulaireveterinaire.service.SalesRollupService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CheckoutPipelineTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long ORDER_ID = 70L;
+
+    @Mock private SalesRollupService salesRollups;
+
+    private SimpleMeterRegistry meterRegistry;
+    private CheckoutPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        pipeline = new CheckoutPipeline(salesRollups, meterRegistry, 2);
+        ReflectionTestUtils.setField(pipeline, "rollupMaxAttempts", 3);
+        ReflectionTestUtils.setField(pipeline, "rollupBackoffMs", 10L);
+        ReflectionTestUtils.setField(pipeline, "analyticsMaxAttempts", 1);
+        pipeline.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        pipeline.shutdown();
+    }
+
+    private static OrderConfirmedEvent event() {
+        return new OrderConfirmedEvent(ORDER_ID, USER_ID, "ORD-TEST", new BigDecimal("200.00"), LocalDateTime.now());
+    }
+
+    @Test
+    void failingStageIsRetriedWithoutBlockingTheOthers() {
+        when(salesRollups.recordOrder(ORDER_ID)).thenThrow(new RuntimeException("DB down")).thenReturn(true);
+
+        pipeline.onOrderConfirmed(event());
+
+        verify(salesRollups, timeout(2000).times(2)).recordOrder(ORDER_ID);
+        verify(salesRollups, after(200).times(2)).recordOrder(ORDER_ID);
+        assertEquals(1.0, meterRegistry.counter("checkout.stage.outcome", "stage", "rollup", "result", "retry").count());
+        assertEquals(1.0, meterRegistry.counter("checkout.stage.outcome", "stage", "rollup", "result", "success").count());
+        assertEquals(1.0, meterRegistry.counter("orders.confirmed").count());
+    }
+
+    @Test
+    void aStageGivesUpAfterItsMaxAttempts() {
+        when(salesRollups.recordOrder(ORDER_ID)).thenThrow(new RuntimeException("DB down"));
+
+        pipeline.onOrderConfirmed(event());
+
+        verify(salesRollups, timeout(2000).times(3)).recordOrder(ORDER_ID);
+        verify(salesRollups, after(200).times(3)).recordOrder(ORDER_ID);
+        assertEquals(1.0, meterRegistry.counter("checkout.stage.outcome", "stage", "rollup", "result", "failed").count());
+    }
+}
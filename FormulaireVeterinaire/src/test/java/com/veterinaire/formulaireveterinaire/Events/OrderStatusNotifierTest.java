@@ -0,0 +1,79 @@
+package com.veterinaire.formulaireveterinaire.Events;
+
+import com.veterinaire.formulaireveterinaire.DAO.OutboxEmailRepository;
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+import com.veterinaire.formulaireveterinaire.Mail.MailTemplateRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class OrderStatusNotifierTest {
+
+    @Mock private OutboxEmailRepository outboxRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private OrderStatusNotifier notifier;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MailTemplateRegistry mailTemplates = new MailTemplateRegistry();
+        mailTemplates.load();
+        meterRegistry = new SimpleMeterRegistry();
+        notifier = new OrderStatusNotifier(outboxRepository, mailTemplates, meterRegistry);
+        ReflectionTestUtils.setField(notifier, "batchSize", 2);
+        when(outboxRepository.enqueuePerOrder(anyCollection(), any(), any(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> invocation.<Collection<Long>>getArgument(0).size());
+    }
+
+    private static OrderStatusChangedEvent event(int orders) {
+        List<OrderStatusChangedEvent.Change> changes = new ArrayList<>();
+        for (long id = 1; id <= orders; id++) {
+            changes.add(new OrderStatusChangedEvent.Change(id, 100 + id, "ORD-" + id));
+        }
+        return new OrderStatusChangedEvent(OrderStatus.SHIPPED, changes);
+    }
+
+    @Test
+    void enqueuesOneInsertPerChunkWithTheTemplateRenderedOnce() {
+        notifier.onStatusChanged(event(5));
+
+        ArgumentCaptor<Collection<Long>> chunks = ArgumentCaptor.forClass(Collection.class);
+        ArgumentCaptor<String> bodies = ArgumentCaptor.forClass(String.class);
+        verify(outboxRepository, times(3)).enqueuePerOrder(chunks.capture(), contains(OrderStatusNotifier.NUMBER_MARKER),
+                bodies.capture(), eq(OrderStatusNotifier.NUMBER_MARKER), eq(OrderStatusNotifier.NAME_MARKER),
+                any(), any());
+        assertEquals(List.of(List.of(1L, 2L), List.of(3L, 4L), List.of(5L)), chunks.getAllValues());
+        String body = bodies.getValue();
+        assertTrue(body.contains(OrderStatusNotifier.NAME_MARKER), "name marker survives escaping");
+        assertTrue(body.contains(OrderStatusNotifier.NUMBER_MARKER));
+        assertTrue(body.contains("expédiée"));
+        assertEquals(5, meterRegistry.counter("orders.status.notifications", "status", "SHIPPED", "result", "queued").count());
+    }
+
+    @Test
+    void ordersWithoutRecipientAreCounted() {
+        when(outboxRepository.enqueuePerOrder(anyCollection(), any(), any(), any(), any(), any(), any())).thenReturn(1);
+
+        notifier.onStatusChanged(event(2));
+
+        assertEquals(1, meterRegistry.counter("orders.status.notifications", "status", "SHIPPED", "result", "queued").count());
+        assertEquals(1, meterRegistry.counter("orders.status.notifications", "status", "SHIPPED", "result", "no-recipient").count());
+    }
+}
@@ -0,0 +1,58 @@
+package com.veterinaire.formulaireveterinaire.Mail;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailTemplateRegistryTest {
+
+    private MailTemplateRegistry registry;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        registry = new MailTemplateRegistry();
+        registry.load();   // parses every templates/mail/*.html: a syntax error in one of them fails here
+    }
+
+    @Test
+    void shippedTemplatesAreLoaded() {
+        for (String name : new String[]{"order-confirmation", "order-confirmation-item", "order-status",
+                "finance-digest", "finance-digest-row", "subscription-reminder", "welcome"}) {
+            assertEquals(name, registry.get(name).getName());
+        }
+    }
+
+    @Test
+    void unknownTemplateIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> registry.render("inexistant", Map.of()));
+    }
+
+    @Test
+    void rendersARealTemplate() {
+        StringBuilder items = new StringBuilder();
+        registry.renderTo(items, "order-confirmation-item", Map.of(
+                "imageUrl", "https://example.com/1.png",
+                "productName", "Croquettes <Chat>",
+                "quantity", 2,
+                "unitPrice", new BigDecimal("12.5"),
+                "subTotal", new BigDecimal("25")));
+
+        String html = registry.render("order-confirmation", Map.of(
+                "nom", "Ben Ali",
+                "orderNumber", "ORD-0000000000001",
+                "confirmedAt", LocalDateTime.of(2025, 6, 1, 14, 30),
+                "items", items,
+                "total", new BigDecimal("25"),
+                "year", 2025));
+
+        assertTrue(html.contains("Croquettes &lt;Chat&gt;"));
+        assertTrue(html.contains("25.00"));
+        assertTrue(html.contains("01/06/2025 14:30"));
+        assertFalse(html.contains("{{"));
+    }
+}
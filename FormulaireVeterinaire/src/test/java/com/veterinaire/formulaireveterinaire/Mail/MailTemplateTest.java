@@ -0,0 +1,70 @@
+package com.veterinaire.formulaireveterinaire.Mail;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MailTemplateTest {
+
+    private static String render(String source, Map<String, ?> model) {
+        StringBuilder out = new StringBuilder();
+        MailTemplate.parse("test", source).renderTo(out, model);
+        return out.toString();
+    }
+
+    @Test
+    void textValuesAreHtmlEscapedAndRawValuesAreNot() {
+        String html = render("<p>{{nom}}</p>{{rows|raw}}", Map.of(
+                "nom", "<script>alert('x')</script> & \"Dr\"",
+                "rows", "<tr><td>1</td></tr>"));
+
+        assertEquals("<p>&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt; &amp; &quot;Dr&quot;</p><tr><td>1</td></tr>", html);
+    }
+
+    @Test
+    void moneyUsesADotWhateverTheDefaultLocale() {
+        Locale previous = Locale.getDefault();
+        Locale.setDefault(Locale.FRANCE);
+        try {
+            Map<String, Object> model = new HashMap<>();
+            model.put("a", new BigDecimal("12.5"));
+            model.put("b", new BigDecimal("0.005"));
+            model.put("c", new BigDecimal("-3.456"));
+            model.put("d", new BigDecimal("1234567.891"));
+
+            assertEquals("12.50 0.01 -3.46 1234567.89", render("{{a|money}} {{b|money}} {{c|money}} {{d|money}}", model));
+        } finally {
+            Locale.setDefault(previous);
+        }
+    }
+
+    @Test
+    void datetimeIsDayFirstWithPaddedFields() {
+        assertEquals("05/03/2025 09:07",
+                render("{{at|datetime}}", Map.of("at", LocalDateTime.of(2025, 3, 5, 9, 7))));
+    }
+
+    @Test
+    void missingValueIsRejected() {
+        IllegalArgumentException error = assertThrows(IllegalArgumentException.class,
+                () -> render("Bonjour {{nom}}", Map.of()));
+        assertTrue(error.getMessage().contains("{{nom}}"));
+    }
+
+    @Test
+    void extraModelEntriesAreIgnored() {
+        assertEquals("Bonjour Ali", render("Bonjour {{nom}}", Map.of("nom", "Ali", "inutilise", 1)));
+    }
+
+    @Test
+    void malformedTemplatesFailAtParseTime() {
+        assertThrows(IllegalStateException.class, () -> MailTemplate.parse("t", "Bonjour {{nom"));
+        assertThrows(IllegalStateException.class, () -> MailTemplate.parse("t", "{{total|euros}}"));
+    }
+}
@@ -0,0 +1,177 @@
+package com.veterinaire.formulaireveterinaire.Mail;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.mail.Address;
+import jakarta.mail.Message;
+import jakarta.mail.MessagingException;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.Session;
+import jakarta.mail.Transport;
+import jakarta.mail.internet.InternetAddress;
+import jakarta.mail.internet.MimeMessage;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class SmtpTransportPoolTest {
+
+    private final Session messageSession = Session.getInstance(new Properties());
+
+    private JavaMailSenderImpl mailSender;
+    private Session session;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() {
+        mailSender = mock(JavaMailSenderImpl.class);
+        session = mock(Session.class);
+        meterRegistry = new SimpleMeterRegistry();
+        when(mailSender.getSession()).thenReturn(session);
+        when(mailSender.getProtocol()).thenReturn("smtp");
+        when(mailSender.getHost()).thenReturn("smtp.example.com");
+        when(mailSender.getPort()).thenReturn(587);
+    }
+
+    private SmtpTransportPool pool(int maxConnections) {
+        SmtpTransportPool pool = new SmtpTransportPool(mailSender, meterRegistry, maxConnections);
+        ReflectionTestUtils.setField(pool, "maxMessagesPerConnection", 90);
+        ReflectionTestUtils.setField(pool, "idleTimeoutMs", 60_000L);
+        return pool;
+    }
+
+    private List<MimeMessage> messages(int count) throws MessagingException {
+        List<MimeMessage> messages = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            MimeMessage message = new MimeMessage(messageSession);
+            message.setRecipient(Message.RecipientType.TO, new InternetAddress("dr" + i + "@example.com"));
+            message.setSubject("Message " + i);
+            message.setText("Bonjour");
+            messages.add(message);
+        }
+        return messages;
+    }
+
+    private static Transport connectedTransport() {
+        Transport transport = mock(Transport.class);
+        when(transport.isConnected()).thenReturn(true);
+        return transport;
+    }
+
+    private double counted(String result) {
+        return meterRegistry.get("mail.smtp.messages").tag("result", result).counter().count();
+    }
+
+    @Test
+    void aRejectedMessageDoesNotAbortTheBatch() throws Exception {
+        Transport transport = connectedTransport();
+        when(session.getTransport("smtp")).thenReturn(transport);
+        List<MimeMessage> batch = messages(3);
+        doThrow(new SendFailedException("550 unknown recipient"))
+                .when(transport).sendMessage(eq(batch.get(1)), any(Address[].class));
+
+        List<Exception> results = pool(1).sendBatch(batch);
+
+        assertNull(results.get(0));
+        assertInstanceOf(SendFailedException.class, results.get(1));
+        assertNull(results.get(2));
+        verify(transport, times(3)).sendMessage(any(), any(Address[].class));
+        verify(transport, times(1)).connect(anyString(), anyInt(), any(), any());
+        assertEquals(2, counted("sent"));
+        assertEquals(1, counted("failed"));
+    }
+
+    @Test
+    void aDroppedConnectionIsReopenedAndTheMessageRetried() throws Exception {
+        Transport dead = mock(Transport.class);
+        AtomicInteger deadSends = new AtomicInteger();
+        when(dead.isConnected()).thenAnswer(invocation -> deadSends.get() == 0);
+        doAnswer(invocation -> {
+            deadSends.incrementAndGet();
+            throw new MessagingException("421 connection closed");
+        }).when(dead).sendMessage(any(), any(Address[].class));
+        Transport fresh = connectedTransport();
+        when(session.getTransport("smtp")).thenReturn(dead, fresh);
+
+        List<Exception> results = pool(1).sendBatch(messages(2));
+
+        assertNull(results.get(0));
+        assertNull(results.get(1));
+        verify(dead).close();
+        verify(fresh, times(2)).sendMessage(any(), any(Address[].class));
+        assertEquals(2, meterRegistry.get("mail.smtp.handshakes").counter().count());
+        assertEquals(2, counted("sent"));
+        assertEquals(0, counted("failed"));
+    }
+
+    @Test
+    void aFailedRetryClosesTheReopenedConnection() throws Exception {
+        Transport dead = mock(Transport.class);
+        AtomicInteger deadSends = new AtomicInteger();
+        when(dead.isConnected()).thenAnswer(invocation -> deadSends.get() == 0);
+        doAnswer(invocation -> {
+            deadSends.incrementAndGet();
+            throw new MessagingException("421 connection closed");
+        }).when(dead).sendMessage(any(), any(Address[].class));
+        Transport reopened = connectedTransport();
+        doThrow(new SendFailedException("550 unknown recipient"))
+                .when(reopened).sendMessage(any(), any(Address[].class));
+        Transport next = connectedTransport();
+        when(session.getTransport("smtp")).thenReturn(dead, reopened, next);
+
+        List<Exception> results = pool(1).sendBatch(messages(2));
+
+        assertInstanceOf(SendFailedException.class, results.get(0));
+        assertNull(results.get(1));
+        verify(reopened).close();
+        verify(next).sendMessage(any(), any(Address[].class));
+        assertEquals(3, meterRegistry.get("mail.smtp.handshakes").counter().count());
+        assertEquals(1, counted("sent"));
+        assertEquals(1, counted("failed"));
+    }
+
+    @Test
+    void noMoreConnectionsInUseThanPermits() throws Exception {
+        AtomicInteger inUse = new AtomicInteger();
+        AtomicInteger maxInUse = new AtomicInteger();
+        when(session.getTransport("smtp")).thenAnswer(invocation -> {
+            Transport transport = connectedTransport();
+            doAnswer(send -> {
+                int now = inUse.incrementAndGet();
+                maxInUse.accumulateAndGet(now, Math::max);
+                Thread.sleep(20);
+                inUse.decrementAndGet();
+                return null;
+            }).when(transport).sendMessage(any(), any(Address[].class));
+            return transport;
+        });
+        SmtpTransportPool pool = pool(2);
+
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        List<Future<List<Exception>>> batches = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            List<MimeMessage> batch = messages(3);
+            batches.add(executor.submit(() -> pool.sendBatch(batch)));
+        }
+        for (Future<List<Exception>> batch : batches) {
+            batch.get().forEach(org.junit.jupiter.api.Assertions::assertNull);
+        }
+        executor.shutdown();
+
+        assertTrue(maxInUse.get() <= 2, "connections in use: " + maxInUse.get());
+        assertEquals(18, counted("sent"));
+        verify(session, atMost(2)).getTransport("smtp");   // idle connections are reused, not reopened
+    }
+}
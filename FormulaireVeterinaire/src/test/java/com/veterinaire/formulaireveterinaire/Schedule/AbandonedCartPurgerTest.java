@@ -0,0 +1,96 @@
+package com.veterinaire.formulaireveterinaire.Schedule;
+
+import com.veterinaire.formulaireveterinaire.DAO.Cart.CartOrderRepository;
+import com.veterinaire.formulaireveterinaire.DAO.Cart.OrderItemRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AbandonedCartPurgerTest {
+
+    private static final LocalDateTime CUTOFF = LocalDateTime.of(2026, 1, 1, 3, 30);
+
+    @Mock private CartOrderRepository cartOrderRepo;
+    @Mock private OrderItemRepository itemRepo;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AbandonedCartPurger purger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        purger = new AbandonedCartPurger(cartOrderRepo, itemRepo, transactionManager, meterRegistry);
+        ReflectionTestUtils.setField(purger, "batchSize", 2);
+    }
+
+    private double purged(String table) {
+        return meterRegistry.get("cart.purge.rows").tag("table", table).counter().count();
+    }
+
+    @Test
+    void walksFullChunksByIdUntilAShortOne() {
+        when(cartOrderRepo.lockAbandonedCarts(0L, CUTOFF, 2)).thenReturn(List.of(1L, 2L));
+        when(cartOrderRepo.lockAbandonedCarts(2L, CUTOFF, 2)).thenReturn(List.of(3L, 4L));
+        when(cartOrderRepo.lockAbandonedCarts(4L, CUTOFF, 2)).thenReturn(List.of(7L));
+        when(itemRepo.deleteAllByOrderIdIn(List.of(1L, 2L))).thenReturn(3);
+        when(itemRepo.deleteAllByOrderIdIn(List.of(3L, 4L))).thenReturn(0);
+        when(itemRepo.deleteAllByOrderIdIn(List.of(7L))).thenReturn(2);
+
+        AbandonedCartPurger.PurgeReport report = purger.purge(CUTOFF);
+
+        assertEquals(new AbandonedCartPurger.PurgeReport(5, 5, 3), report);
+        InOrder order = inOrder(cartOrderRepo);
+        order.verify(cartOrderRepo).lockAbandonedCarts(0L, CUTOFF, 2);
+        order.verify(cartOrderRepo).lockAbandonedCarts(2L, CUTOFF, 2);
+        order.verify(cartOrderRepo).lockAbandonedCarts(4L, CUTOFF, 2);
+        verify(cartOrderRepo, times(3)).lockAbandonedCarts(anyLong(), any(), anyInt());   // the short chunk ends the run
+        verify(cartOrderRepo).deleteAllByIdInBatch(List.of(7L));
+        verify(transactionManager, times(3)).commit(any());
+        assertEquals(5, purged("orders"));
+        assertEquals(5, purged("order_items"));
+    }
+
+    @Test
+    void anExactMultipleStopsOnTheEmptyChunk() {
+        when(cartOrderRepo.lockAbandonedCarts(0L, CUTOFF, 2)).thenReturn(List.of(1L, 2L));
+        when(cartOrderRepo.lockAbandonedCarts(2L, CUTOFF, 2)).thenReturn(List.of());
+        when(itemRepo.deleteAllByOrderIdIn(anyCollection())).thenReturn(1);
+
+        AbandonedCartPurger.PurgeReport report = purger.purge(CUTOFF);
+
+        assertEquals(new AbandonedCartPurger.PurgeReport(2, 1, 1), report);
+        verify(cartOrderRepo, times(1)).deleteAllByIdInBatch(any());
+        assertEquals(2, purged("orders"));
+    }
+
+    @Test
+    void nothingIdleTouchesNothing() {
+        when(cartOrderRepo.lockAbandonedCarts(anyLong(), any(), anyInt())).thenReturn(List.of());
+
+        assertEquals(new AbandonedCartPurger.PurgeReport(0, 0, 0), purger.purge(CUTOFF));
+
+        verifyNoInteractions(itemRepo);
+        verify(cartOrderRepo, never()).deleteAllByIdInBatch(any());
+        assertEquals(0, purged("orders"));
+    }
+}
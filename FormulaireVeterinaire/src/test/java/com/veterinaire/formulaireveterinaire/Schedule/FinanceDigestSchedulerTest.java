@@ -0,0 +1,70 @@
+package com.veterinaire.formulaireveterinaire.Schedule;
+
+import com.veterinaire.formulaireveterinaire.DAO.FinanceNotificationRepository;
+import com.veterinaire.formulaireveterinaire.service.FinanceNotificationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FinanceDigestSchedulerTest {
+
+    private static final int MAX_ROWS = 100;
+
+    @Mock private FinanceNotificationService financeNotificationService;
+    @Mock private FinanceNotificationRepository notificationRepository;
+
+    private FinanceDigestScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        scheduler = new FinanceDigestScheduler(financeNotificationService, notificationRepository);
+        ReflectionTestUtils.setField(scheduler, "threshold", 200L);
+        ReflectionTestUtils.setField(scheduler, "maxRows", MAX_ROWS);
+    }
+
+    @Test
+    void belowThresholdWaitsForTheSchedule() {
+        when(notificationRepository.countByDigestedAtIsNull()).thenReturn(199L);
+
+        scheduler.sendDigestIfThresholdReached();
+
+        verifyNoInteractions(financeNotificationService);
+    }
+
+    @Test
+    void reachingTheThresholdFlushesEarly() {
+        when(notificationRepository.countByDigestedAtIsNull()).thenReturn(200L);
+        when(financeNotificationService.flushDigest()).thenReturn(MAX_ROWS, MAX_ROWS, 0);
+
+        scheduler.sendDigestIfThresholdReached();
+
+        verify(financeNotificationService, times(3)).flushDigest();
+    }
+
+    @Test
+    void keepsFlushingWhileDigestsComeBackFull() {
+        when(financeNotificationService.flushDigest()).thenReturn(MAX_ROWS, MAX_ROWS, 37);
+
+        scheduler.sendScheduledDigest();
+
+        verify(financeNotificationService, times(3)).flushDigest();
+    }
+
+    @Test
+    void aPartialDigestEndsTheRun() {
+        when(financeNotificationService.flushDigest()).thenReturn(12);
+
+        scheduler.sendScheduledDigest();
+
+        verify(financeNotificationService, times(1)).flushDigest();
+    }
+}
@@ -0,0 +1,99 @@
+package com.veterinaire.formulaireveterinaire.Utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OrderNumberGeneratorTest {
+
+    private static final int THREADS = 8;
+    private static final int PER_THREAD = 500_000;
+
+    @Test
+    void millionsOfConcurrentIdsAreUniqueAndIncreasingPerThread() throws Exception {
+        OrderNumberGenerator generator = new OrderNumberGenerator(42, System::currentTimeMillis);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<long[]>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                long[] ids = new long[PER_THREAD];
+                start.await();
+                for (int i = 0; i < PER_THREAD; i++) {
+                    ids[i] = generator.nextId();
+                }
+                return ids;
+            }));
+        }
+        start.countDown();
+
+        long[] all = new long[THREADS * PER_THREAD];
+        int offset = 0;
+        for (Future<long[]> future : futures) {
+            long[] ids = future.get();
+            for (int i = 1; i < ids.length; i++) {
+                assertTrue(ids[i] > ids[i - 1], "ids must increase within a thread");
+            }
+            System.arraycopy(ids, 0, all, offset, ids.length);
+            offset += ids.length;
+        }
+        executor.shutdown();
+
+        Arrays.sort(all);
+        for (int i = 1; i < all.length; i++) {
+            assertNotEquals(all[i - 1], all[i], "duplicate id");
+        }
+    }
+
+    @Test
+    void clockGoingBackwardsNeverRepeatsAnId() {
+        AtomicLong now = new AtomicLong(OrderNumberGenerator.EPOCH_MS + 1_000_000);
+        OrderNumberGenerator generator = new OrderNumberGenerator(1, now::get);
+
+        long before = generator.nextId();
+        now.addAndGet(-5_000);
+        long after = generator.nextId();
+
+        assertTrue(after > before);
+    }
+
+    @Test
+    void differentNodesNeverCollideOnTheSameMillisecond() {
+        OrderNumberGenerator a = new OrderNumberGenerator(1, () -> OrderNumberGenerator.EPOCH_MS + 77);
+        OrderNumberGenerator b = new OrderNumberGenerator(2, () -> OrderNumberGenerator.EPOCH_MS + 77);
+
+        Set<String> numbers = new HashSet<>();
+        for (int i = 0; i < 10_000; i++) {   // past the 4096 per-millisecond sequence
+            assertTrue(numbers.add(a.next()));
+            assertTrue(numbers.add(b.next()));
+        }
+    }
+
+    @Test
+    void numbersAreFixedWidthCrockfordAndSortByTime() {
+        OrderNumberGenerator generator = new OrderNumberGenerator(3, System::currentTimeMillis);
+        String first = generator.next();
+        String second = generator.next();
+
+        assertTrue(first.matches("ORD-[0-9A-HJKMNP-TV-Z]{13}"), first);
+        assertTrue(first.compareTo(second) < 0);
+        assertThrows(IllegalArgumentException.class, () -> new OrderNumberGenerator(1024, System::currentTimeMillis));
+    }
+
+    @Test
+    void anInstanceWithoutANodeIdRefusesToStart() {
+        assertThrows(IllegalStateException.class, () -> new OrderNumberGenerator(-1));
+        assertDoesNotThrow(() -> new OrderNumberGenerator(0));
+    }
+}
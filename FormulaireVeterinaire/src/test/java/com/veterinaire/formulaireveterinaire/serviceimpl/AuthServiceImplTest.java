@@ -0,0 +1,71 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.Config.JwtUtil;
+import com.veterinaire.formulaireveterinaire.Config.SecurityVersionRegistry;
+import com.veterinaire.formulaireveterinaire.DAO.UserRepository;
+import com.veterinaire.formulaireveterinaire.DTO.LoginDTO;
+import com.veterinaire.formulaireveterinaire.entity.User;
+import com.veterinaire.formulaireveterinaire.service.PasswordHashingService;
+import com.veterinaire.formulaireveterinaire.service.TokenRevocationService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class AuthServiceImplTest {
+
+    private static final String DUMMY_HASH = "$2a$10$dummydummydummydummydummydummydummydummydummydummydu";
+
+    @Mock private JwtUtil jwtUtil;
+    @Mock private UserRepository userRepository;
+    @Mock private PasswordHashingService passwordHashingService;
+    @Mock private TokenRevocationService tokenRevocationService;
+    @Mock private SecurityVersionRegistry securityVersionRegistry;
+
+    private AuthServiceImpl authService;
+
+    @BeforeEach
+    void setUp() {
+        when(passwordHashingService.encode(anyString())).thenReturn(DUMMY_HASH);
+        authService = new AuthServiceImpl(jwtUtil, userRepository, passwordHashingService, tokenRevocationService,
+                securityVersionRegistry);
+    }
+
+    @Test
+    void unknownEmailStillPaysOneHashComparison() {
+        when(userRepository.findByEmail("inconnu@vitalfeed.tn")).thenReturn(Optional.empty());
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> authService.login(new LoginDTO("inconnu@vitalfeed.tn", "secret")));
+
+        assertEquals("Unauthorized: Bad credentials", error.getMessage());
+        verify(passwordHashingService).matches("secret", DUMMY_HASH);
+    }
+
+    @Test
+    void wrongPasswordFailsWithTheSameError() {
+        User user = new User();
+        user.setEmail("dr@vitalfeed.tn");
+        user.setPassword("$2a$10$stored");
+        when(userRepository.findByEmail("dr@vitalfeed.tn")).thenReturn(Optional.of(user));
+        when(passwordHashingService.matches("wrong", "$2a$10$stored")).thenReturn(false);
+
+        RuntimeException error = assertThrows(RuntimeException.class,
+                () -> authService.login(new LoginDTO("dr@vitalfeed.tn", "wrong")));
+
+        assertEquals("Unauthorized: Bad credentials", error.getMessage());
+        verify(passwordHashingService, times(1)).matches(anyString(), anyString());
+    }
+}
@@ -0,0 +1,222 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.DAO.Cart.CartOrderRepository;
+import com.veterinaire.formulaireveterinaire.DAO.Cart.OrderItemRepository;
+import com.veterinaire.formulaireveterinaire.DAO.ProductRepository;
+import com.veterinaire.formulaireveterinaire.DAO.UserRepository;
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartItemRequest;
+import com.veterinaire.formulaireveterinaire.Enums.Category;
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+import com.veterinaire.formulaireveterinaire.Enums.SubCategory;
+import com.veterinaire.formulaireveterinaire.Mail.MailTemplateRegistry;
+import com.veterinaire.formulaireveterinaire.Utils.OrderNumberGenerator;
+import com.veterinaire.formulaireveterinaire.entity.CartOrder;
+import com.veterinaire.formulaireveterinaire.entity.OrderItem;
+import com.veterinaire.formulaireveterinaire.entity.Product;
+import com.veterinaire.formulaireveterinaire.entity.User;
+import com.veterinaire.formulaireveterinaire.service.EmailOutboxService;
+import com.veterinaire.formulaireveterinaire.service.FinanceNotificationService;
+import com.veterinaire.formulaireveterinaire.service.InventoryService;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+/**
+ * Concurrent cart and checkout flows of {@link CartServiceImpl} on platform threads (a Tomcat-sized pool) and,
+ * on JDK 21+, on virtual threads. Repositories are stubs that sleep to mimic the remote database.
+ * Every flow must succeed, and each checkout must get its own order number and queue exactly one
+ * confirmation email. Throughput and latency of both threading models are logged for comparison.
+ */
+class CartCheckoutConcurrencyTest {
+    private static final Logger logger = LoggerFactory.getLogger(CartCheckoutConcurrencyTest.class);
+
+    private static final int USERS = 400;
+    private static final int PLATFORM_POOL_SIZE = 200;       // Tomcat's default max threads
+    private static final Duration DB_LATENCY = Duration.ofMillis(5);
+
+    @Test
+    void concurrentCheckoutsOnPlatformThreads() throws Exception {
+        log(run("platform", Executors.newFixedThreadPool(PLATFORM_POOL_SIZE)));
+    }
+
+    @Test
+    void concurrentCheckoutsOnVirtualThreads() throws Exception {
+        ExecutorService virtual = newVirtualThreadPerTaskExecutor();
+        assumeTrue(virtual != null, "virtual threads need JDK 21+, running on " + Runtime.version());
+        log(run("virtual", virtual));
+    }
+
+    private record Result(String name, long elapsedMs, double throughput, long p50Ms, long p99Ms) {}
+
+    private Result run(String name, ExecutorService executor) throws Exception {
+        AtomicInteger confirmations = new AtomicInteger();
+        CartServiceImpl cartService = newCartService(confirmations);
+        Set<String> orderNumbers = ConcurrentHashMap.newKeySet();
+        long[] latencies = new long[USERS];
+        AtomicInteger failures = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>(USERS);
+
+        long begin = System.nanoTime();
+        for (int i = 0; i < USERS; i++) {
+            long userId = i + 1;
+            int slot = i;
+            futures.add(executor.submit(() -> {
+                try {
+                    start.await();
+                    long t0 = System.nanoTime();
+                    CartItemRequest request = new CartItemRequest();
+                    request.setProductId(userId % 50 + 1);
+                    request.setQuantity(2);
+                    cartService.addItem(userId, request);
+                    cartService.getCart(userId);
+                    orderNumbers.add(cartService.checkout(userId));
+                    latencies[slot] = (System.nanoTime() - t0) / 1_000_000;
+                } catch (Exception e) {
+                    failures.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        long elapsedMs = (System.nanoTime() - begin) / 1_000_000;
+        executor.shutdown();
+
+        assertEquals(0, failures.get(), name + ": some flows failed");
+        assertEquals(USERS, orderNumbers.size(), name + ": duplicate order numbers");
+        assertEquals(USERS, confirmations.get(), name + ": one confirmation email per checkout");
+        Arrays.sort(latencies);
+        return new Result(name, elapsedMs, USERS * 1000.0 / Math.max(1, elapsedMs),
+                latencies[USERS / 2], latencies[(int) (USERS * 0.99)]);
+    }
+
+    private static void log(Result result) {
+        logger.info("{} threads: {} flows in {} ms -> {} flows/s, p50 {} ms, p99 {} ms", result.name(), USERS,
+                result.elapsedMs(), Math.round(result.throughput()), result.p50Ms(), result.p99Ms());
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            // Reflection keeps the test compiling on the project's Java 17 baseline
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    // --- Stubs with simulated latency ---
+
+    private static <T> Answer<T> slow(Duration latency, Answer<T> answer) {
+        return invocation -> {
+            Thread.sleep(latency.toMillis());
+            return answer.answer(invocation);
+        };
+    }
+
+    private static CartServiceImpl newCartService(AtomicInteger confirmations) throws Exception {
+        CartOrderRepository cartOrderRepo = mock(CartOrderRepository.class, withSettings().stubOnly());
+        OrderItemRepository itemRepo = mock(OrderItemRepository.class, withSettings().stubOnly());
+        ProductRepository productRepo = mock(ProductRepository.class, withSettings().stubOnly());
+        UserRepository userRepo = mock(UserRepository.class, withSettings().stubOnly());
+        EmailOutboxService emailOutbox = mock(EmailOutboxService.class, withSettings().stubOnly());
+        MailTemplateRegistry mailTemplates = new MailTemplateRegistry();
+        mailTemplates.load();
+
+        when(cartOrderRepo.findByUserIdAndStatus(anyLong(), any())).then(slow(DB_LATENCY, inv -> {
+            Long userId = inv.getArgument(0);
+            return Optional.of(cart(userId));
+        }));
+        when(cartOrderRepo.findById(anyLong())).then(slow(DB_LATENCY, inv -> Optional.of(cart(inv.getArgument(0)))));
+        when(cartOrderRepo.claimCart(anyLong())).then(slow(DB_LATENCY, inv -> 1));
+        when(cartOrderRepo.save(any())).then(slow(DB_LATENCY, inv -> inv.getArgument(0)));
+        when(cartOrderRepo.addToTotal(anyLong(), any())).then(slow(DB_LATENCY, inv -> 1));
+
+        when(itemRepo.findByOrderId(anyLong())).then(slow(DB_LATENCY, inv -> List.of(item(inv.getArgument(0)))));
+        when(itemRepo.sumLineTotals(anyLong())).then(slow(DB_LATENCY, inv -> new BigDecimal("25.00")));
+        when(itemRepo.findById(anyLong())).then(slow(DB_LATENCY, inv -> Optional.of(item(inv.getArgument(0)))));
+        when(itemRepo.upsertLine(anyLong(), anyLong(), anyInt(), any())).then(slow(DB_LATENCY, inv -> {
+            OrderItem item = item(inv.getArgument(0));
+            item.setProductId(inv.getArgument(1));
+            item.setQuantity(inv.getArgument(2));
+            item.setPrice(inv.getArgument(3));
+            return item;
+        }));
+
+        when(productRepo.findById(anyLong())).then(slow(DB_LATENCY, inv -> Optional.of(product(inv.getArgument(0)))));
+        when(productRepo.findAllById(any())).then(slow(DB_LATENCY, inv -> {
+            List<Product> products = new ArrayList<>();
+            for (Long id : inv.<Iterable<Long>>getArgument(0)) {
+                products.add(product(id));
+            }
+            return products;
+        }));
+
+        when(userRepo.findById(anyLong())).then(slow(DB_LATENCY, inv -> Optional.of(user(inv.getArgument(0)))));
+        // The outbox row is an INSERT in the checkout transaction; SMTP happens later on the dispatcher
+        doAnswer(slow(DB_LATENCY, inv -> confirmations.incrementAndGet()))
+                .when(emailOutbox).enqueue(any(), any(), any(), any());
+
+        return new CartServiceImpl(cartOrderRepo, itemRepo, userRepo, productRepo, emailOutbox, mailTemplates,
+                mock(FinanceNotificationService.class, withSettings().stubOnly()), event -> { },
+                new OrderNumberGenerator(1), mock(InventoryService.class, withSettings().stubOnly()));
+    }
+
+    private static CartOrder cart(Long userId) {
+        CartOrder cart = new CartOrder();
+        cart.setId(userId);
+        cart.setUserId(userId);
+        cart.setStatus(OrderStatus.CART);
+        cart.setTotalAmount(new BigDecimal("25.00"));
+        return cart;
+    }
+
+    private static User user(Long userId) {
+        User user = new User();
+        user.setId(userId);
+        user.setNom("Vet " + userId);
+        user.setEmail("vet" + userId + "@example.com");
+        return user;
+    }
+
+    private static OrderItem item(Long orderId) {
+        OrderItem item = new OrderItem();
+        item.setId(orderId);
+        item.setOrderId(orderId);
+        item.setProductId(orderId % 50 + 1);
+        item.setQuantity(2);
+        item.setPrice(new BigDecimal("12.50"));
+        return item;
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Produit " + id);
+        product.setPrice(new BigDecimal("12.50"));
+        product.setImageUrl("https://example.com/" + id + ".png");
+        product.setCategory(Category.CHIEN);
+        product.setSubCategory(SubCategory.ALIMENT);
+        product.setInStock(true);
+        return product;
+    }
+}
@@ -0,0 +1,270 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.DAO.Cart.CartOrderRepository;
+import com.veterinaire.formulaireveterinaire.DAO.Cart.OrderItemRepository;
+import com.veterinaire.formulaireveterinaire.DAO.ProductRepository;
+import com.veterinaire.formulaireveterinaire.DAO.UserRepository;
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartItemRequest;
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartOperationRequest;
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartResponse;
+import com.veterinaire.formulaireveterinaire.Enums.CartOperationType;
+import com.veterinaire.formulaireveterinaire.Enums.FinanceEventType;
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+import com.veterinaire.formulaireveterinaire.Events.OrderConfirmedEvent;
+import com.veterinaire.formulaireveterinaire.Mail.MailTemplateRegistry;
+import com.veterinaire.formulaireveterinaire.Utils.OrderNumberGenerator;
+import com.veterinaire.formulaireveterinaire.entity.CartOrder;
+import com.veterinaire.formulaireveterinaire.entity.OrderItem;
+import com.veterinaire.formulaireveterinaire.entity.Product;
+import com.veterinaire.formulaireveterinaire.entity.User;
+import com.veterinaire.formulaireveterinaire.service.EmailOutboxService;
+import com.veterinaire.formulaireveterinaire.service.FinanceNotificationService;
+import com.veterinaire.formulaireveterinaire.service.InventoryService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.context.ApplicationEventPublisher;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CartServiceImplTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long CART_ID = 70L;
+    private static final int LINES = 30;
+
+    @Mock private CartOrderRepository cartOrderRepo;
+    @Mock private OrderItemRepository itemRepo;
+    @Mock private UserRepository userRepo;
+    @Mock private ProductRepository productRepo;
+    @Mock private EmailOutboxService emailOutbox;
+    @Mock private FinanceNotificationService financeNotifications;
+    @Mock private ApplicationEventPublisher events;
+    @Mock private InventoryService inventory;
+
+    private CartServiceImpl cartService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        MailTemplateRegistry mailTemplates = new MailTemplateRegistry();
+        mailTemplates.load();
+        cartService = new CartServiceImpl(cartOrderRepo, itemRepo, userRepo, productRepo, emailOutbox, mailTemplates,
+                financeNotifications, events, new OrderNumberGenerator(1), inventory);
+
+        CartOrder cart = new CartOrder();
+        cart.setId(CART_ID);
+        cart.setUserId(USER_ID);
+        cart.setStatus(OrderStatus.CART);
+        cart.setTotalAmount(new BigDecimal("300.00"));
+        when(cartOrderRepo.findByUserIdAndStatus(USER_ID, OrderStatus.CART)).thenReturn(Optional.of(cart));
+        when(cartOrderRepo.claimCart(CART_ID)).thenReturn(1);
+
+        List<OrderItem> items = new ArrayList<>();
+        for (long i = 1; i <= LINES; i++) {
+            OrderItem item = new OrderItem();
+            item.setId(i);
+            item.setOrderId(CART_ID);
+            item.setProductId(i);
+            item.setQuantity(1);
+            item.setPrice(BigDecimal.TEN);
+            items.add(item);
+        }
+        when(itemRepo.findByOrderId(CART_ID)).thenReturn(items);
+        when(itemRepo.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(itemRepo.upsertLine(anyLong(), anyLong(), anyInt(), any())).thenAnswer(invocation -> {
+            OrderItem line = new OrderItem();
+            line.setId(100L);
+            line.setOrderId(invocation.getArgument(0));
+            line.setProductId(invocation.getArgument(1));
+            line.setQuantity(invocation.getArgument(2));
+            line.setPrice(invocation.getArgument(3));
+            return line;
+        });
+        when(itemRepo.sumLineTotals(CART_ID)).thenReturn(new BigDecimal("300.00"));
+        when(itemRepo.findById(anyLong())).thenAnswer(invocation -> items.stream()
+                .filter(item -> item.getId().equals(invocation.getArgument(0))).findFirst());
+
+        when(productRepo.findById(anyLong())).thenAnswer(invocation -> Optional.of(product(invocation.getArgument(0))));
+        when(productRepo.findAllById(anyIterable())).thenAnswer(invocation -> {
+            List<Product> products = new ArrayList<>();
+            for (Long id : invocation.<Collection<Long>>getArgument(0)) {
+                products.add(product(id));
+            }
+            return products;
+        });
+
+        User user = new User();
+        user.setId(USER_ID);
+        user.setNom("Test");
+        user.setEmail("vet@example.com");
+        when(userRepo.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(financeNotifications.notifyFinance(any(), any(), any(), any(), any())).thenReturn("finance@example.com");
+    }
+
+    private static Product product(Long id) {
+        Product product = new Product();
+        product.setId(id);
+        product.setName("Produit " + id);
+        product.setPrice(BigDecimal.TEN);
+        return product;
+    }
+
+    @Test
+    void getCartLoadsAllProductsInOneQuery() {
+        CartResponse response = cartService.getCart(USER_ID);
+
+        assertEquals(LINES, response.getItems().size());
+        assertEquals("Produit 30", response.getItems().get(LINES - 1).getProductName());
+        verify(productRepo, times(1)).findAllById(anyIterable());
+        verify(productRepo, never()).findById(anyLong());
+        verify(itemRepo, times(1)).findByOrderId(CART_ID);
+    }
+
+    @Test
+    void checkoutQueuesEmailAndFinanceInItsTransactionAndPublishesTheRest() {
+        String orderNumber = cartService.checkout(USER_ID);
+
+        verify(emailOutbox).enqueue(eq("vet@example.com"), eq("finance@example.com"), anyString(), contains(orderNumber));
+        verify(financeNotifications).notifyFinance(FinanceEventType.ORDER_CONFIRMED, "vet@example.com", "Test",
+                orderNumber, new BigDecimal("300.00"));
+        verify(productRepo, times(1)).findAllById(anyIterable());
+        verify(productRepo, never()).findById(anyLong());
+        verify(itemRepo, times(1)).findByOrderId(CART_ID);
+        verify(events).publishEvent(argThat((Object event) -> event instanceof OrderConfirmedEvent confirmed
+                && confirmed.orderNumber().equals(orderNumber)
+                && confirmed.totalAmount().compareTo(new BigDecimal("300.00")) == 0));
+    }
+
+    @Test
+    void twoCheckoutsOfOneCartConfirmItOnce() throws Exception {
+        // Both requests read the cart as CART; the database lets only the first claim through
+        AtomicBoolean claimed = new AtomicBoolean();
+        when(cartOrderRepo.claimCart(CART_ID)).thenAnswer(invocation -> claimed.compareAndSet(false, true) ? 1 : 0);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<String>> checkouts = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            checkouts.add(executor.submit(() -> {
+                start.await();
+                return cartService.checkout(USER_ID);
+            }));
+        }
+        start.countDown();
+        int confirmed = 0;
+        int refused = 0;
+        for (Future<String> checkout : checkouts) {
+            try {
+                checkout.get();
+                confirmed++;
+            } catch (ExecutionException e) {
+                assertInstanceOf(IllegalStateException.class, e.getCause());
+                refused++;
+            }
+        }
+        executor.shutdown();
+
+        assertEquals(1, confirmed);
+        assertEquals(1, refused);
+        verify(inventory, times(1)).reserve(eq(CART_ID), anyList());
+        verify(cartOrderRepo, times(1)).save(any());
+        verify(emailOutbox, times(1)).enqueue(any(), any(), any(), any());
+        verify(financeNotifications, times(1)).notifyFinance(any(), any(), any(), any(), any());
+        verify(events, times(1)).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void cartMutationsApplyDeltasWithoutReloadingLines() {
+        CartItemRequest request = new CartItemRequest();
+        request.setProductId(31L);
+        request.setQuantity(3);
+        cartService.addItem(USER_ID, request);
+        verify(cartOrderRepo).addToTotal(CART_ID, new BigDecimal("30"));
+        verify(itemRepo).upsertLine(CART_ID, 31L, 3, BigDecimal.TEN);
+
+        cartService.updateItem(USER_ID, 1L, 5);              // 1 -> 5 at 10
+        verify(cartOrderRepo).addToTotal(CART_ID, new BigDecimal("40"));
+
+        cartService.removeItem(USER_ID, 2L);                  // 1 at 10
+        verify(cartOrderRepo).addToTotal(CART_ID, new BigDecimal("-10"));
+
+        verify(itemRepo, never()).findByOrderId(anyLong());
+        verify(cartOrderRepo, never()).findById(anyLong());
+    }
+
+    @Test
+    void checkoutCorrectsDriftedTotal() {
+        when(itemRepo.sumLineTotals(CART_ID)).thenReturn(new BigDecimal("290.00"));
+
+        cartService.checkout(USER_ID);
+
+        verify(cartOrderRepo).save(argThat(order ->
+                order.getStatus() == OrderStatus.CONFIRMED && order.getTotalAmount().compareTo(new BigDecimal("290.00")) == 0));
+    }
+
+    @Test
+    void batchOperationsApplyInOneTransactionWithOneTotalUpdate() {
+        CartResponse response = cartService.applyOperations(USER_ID, List.of(
+                operation(CartOperationType.ADD, 31L, null, 2),     // +20
+                operation(CartOperationType.UPDATE, null, 1L, 4),   // 1 -> 4: +30
+                operation(CartOperationType.UPDATE, null, 2L, 0),   // removed: -10
+                operation(CartOperationType.REMOVE, null, 3L, null) // -10
+        ));
+
+        assertEquals(LINES - 2 + 1, response.getItems().size());
+        assertEquals(0, new BigDecimal("330").compareTo(response.getTotalAmount()));
+        verify(cartOrderRepo, times(1)).addToTotal(CART_ID, new BigDecimal("30"));
+        verify(itemRepo, times(1)).findByOrderId(CART_ID);
+        verify(itemRepo, times(1)).saveAll(anyIterable());
+        verify(itemRepo, times(1)).deleteAll(anyIterable());
+        verify(productRepo, times(1)).findAllById(anyIterable());
+        verify(itemRepo, never()).save(any());
+    }
+
+    private static CartOperationRequest operation(CartOperationType type, Long productId, Long itemId, Integer quantity) {
+        CartOperationRequest op = new CartOperationRequest();
+        op.setType(type);
+        op.setProductId(productId);
+        op.setItemId(itemId);
+        op.setQuantity(quantity);
+        return op;
+    }
+
+    @Test
+    void batchAddOfAProductAlreadyInTheCartMergesIntoItsLine() {
+        CartResponse response = cartService.applyOperations(USER_ID, List.of(
+                operation(CartOperationType.ADD, 5L, null, 2),
+                operation(CartOperationType.ADD, 5L, null, 1)
+        ));
+
+        assertEquals(LINES, response.getItems().size());
+        assertEquals(4, response.getItems().get(4).getQuantity());
+        verify(itemRepo).saveAll(argThat(lines -> {
+            List<OrderItem> saved = new ArrayList<>();
+            lines.forEach(saved::add);
+            return saved.size() == 1 && saved.get(0).getId() == 5L;
+        }));
+        verify(cartOrderRepo).addToTotal(CART_ID, new BigDecimal("30"));
+    }
+}
@@ -0,0 +1,112 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.DAO.FinanceNotificationRepository;
+import com.veterinaire.formulaireveterinaire.Enums.FinanceEventType;
+import com.veterinaire.formulaireveterinaire.Mail.MailTemplateRegistry;
+import com.veterinaire.formulaireveterinaire.entity.FinanceNotification;
+import com.veterinaire.formulaireveterinaire.service.EmailOutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class FinanceNotificationServiceImplTest {
+
+    private static final int MAX_ROWS = 50;
+
+    @Mock private FinanceNotificationRepository notificationRepository;
+    @Mock private EmailOutboxService emailOutbox;
+    @Mock private MailTemplateRegistry mailTemplates;
+
+    private FinanceNotificationServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FinanceNotificationServiceImpl(notificationRepository, emailOutbox, mailTemplates);
+        ReflectionTestUtils.setField(service, "financeEmail", "finance@veterinaire.com");
+        ReflectionTestUtils.setField(service, "digestEnabled", true);
+        ReflectionTestUtils.setField(service, "maxRows", MAX_ROWS);
+        when(mailTemplates.render(eq("finance-digest"), anyMap())).thenReturn("<html></html>");
+    }
+
+    private static FinanceNotification notification(String userName, String reference, BigDecimal amount) {
+        FinanceNotification notification = new FinanceNotification();
+        notification.setEventType(FinanceEventType.ORDER_CONFIRMED);
+        notification.setUserEmail("client@example.com");
+        notification.setUserName(userName);
+        notification.setReference(reference);
+        notification.setAmount(amount);
+        notification.setOccurredAt(LocalDateTime.of(2026, 3, 2, 9, 15));
+        return notification;
+    }
+
+    private String[] csvLines() {
+        ArgumentCaptor<byte[]> csv = ArgumentCaptor.forClass(byte[].class);
+        verify(emailOutbox).enqueue(eq("finance@veterinaire.com"), isNull(), anyString(), eq("<html></html>"),
+                anyString(), eq("text/csv"), csv.capture());
+        return new String(csv.getValue(), StandardCharsets.UTF_8).split("\r\n");
+    }
+
+    @Test
+    void plainFieldsAreWrittenAsIs() {
+        when(notificationRepository.lockPending(MAX_ROWS))
+                .thenReturn(List.of(notification("Dr Ben Ali", "CMD-1", new BigDecimal("12.5"))));
+
+        assertEquals(1, service.flushDigest());
+
+        String[] lines = csvLines();
+        assertEquals('\uFEFF', lines[0].charAt(0));
+        assertEquals("2026-03-02 09:15;Commande confirmée;Dr Ben Ali;client@example.com;CMD-1;12.50", lines[1]);
+    }
+
+    @Test
+    void separatorsQuotesAndNewlinesAreQuoted() {
+        when(notificationRepository.lockPending(MAX_ROWS)).thenReturn(List.of(
+                notification("Ben Ali, Sami", "A;B", null),
+                notification("Clinique \"Les Pins\"", "ligne 1\nligne 2", null)));
+
+        service.flushDigest();
+
+        String csv = String.join("\r\n", csvLines());
+        assertTrue(csv.contains(";\"Ben Ali, Sami\";client@example.com;\"A;B\";"), csv);
+        assertTrue(csv.contains(";\"Clinique \"\"Les Pins\"\"\";client@example.com;\"ligne 1\nligne 2\";"), csv);
+    }
+
+    @Test
+    void aDigestTakesAtMostMaxRowsAndMarksThemDigested() {
+        List<FinanceNotification> pending = List.of(
+                notification("A", "CMD-1", BigDecimal.ONE), notification("B", "CMD-2", BigDecimal.TEN));
+        when(notificationRepository.lockPending(anyInt())).thenReturn(pending);
+
+        assertEquals(2, service.flushDigest());
+
+        verify(notificationRepository).lockPending(MAX_ROWS);
+        assertEquals(3, csvLines().length);   // header + one line per notification
+        pending.forEach(notification -> assertNotNull(notification.getDigestedAt()));
+    }
+
+    @Test
+    void nothingPendingSendsNothing() {
+        when(notificationRepository.lockPending(MAX_ROWS)).thenReturn(List.of());
+
+        assertEquals(0, service.flushDigest());
+
+        verifyNoInteractions(emailOutbox);
+    }
+}
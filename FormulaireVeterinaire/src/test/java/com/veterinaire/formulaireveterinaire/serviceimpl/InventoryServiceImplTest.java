@@ -0,0 +1,118 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.Config.CatalogCache;
+import com.veterinaire.formulaireveterinaire.DAO.Inventory.StockReservationRepository;
+import com.veterinaire.formulaireveterinaire.DAO.ProductRepository;
+import com.veterinaire.formulaireveterinaire.entity.OrderItem;
+import com.veterinaire.formulaireveterinaire.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class InventoryServiceImplTest {
+
+    private static final Long PRODUCT_ID = 5L;
+
+    @Mock private ProductRepository productRepo;
+    @Mock private StockReservationRepository reservationRepo;
+    @Mock private CatalogCache catalogCache;
+
+    private InventoryServiceImpl inventory;
+
+    @BeforeEach
+    void setUp() {
+        inventory = new InventoryServiceImpl(productRepo, reservationRepo, catalogCache, new SimpleMeterRegistry());
+
+        Product product = new Product();
+        product.setId(PRODUCT_ID);
+        product.setName("Croquettes");
+        product.setStockQuantity(5);
+        when(productRepo.findAllById(any())).thenReturn(List.of(product));
+        when(productRepo.decrementStock(eq(PRODUCT_ID), anyInt())).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private static List<OrderItem> line(int quantity) {
+        OrderItem item = new OrderItem();
+        item.setProductId(PRODUCT_ID);
+        item.setQuantity(quantity);
+        return List.of(item);
+    }
+
+    private static void commit() {
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        try {
+            synchronizations.forEach(sync -> sync.beforeCommit(false));
+        } catch (RuntimeException e) {
+            complete(synchronizations, TransactionSynchronization.STATUS_ROLLED_BACK);
+            throw e;
+        }
+        complete(synchronizations, TransactionSynchronization.STATUS_COMMITTED);
+    }
+
+    private static void complete(List<TransactionSynchronization> synchronizations, int status) {
+        synchronizations.forEach(sync -> sync.afterCompletion(status));
+        TransactionSynchronizationManager.clearSynchronization();
+        TransactionSynchronizationManager.initSynchronization();
+    }
+
+    @Test
+    void inFlightCheckoutsAreTurnedAwayBeforeTouchingTheRow() {
+        inventory.reserve(1L, line(3));   // transaction still open: 3 of 5 held
+
+        assertThrows(IllegalStateException.class, () -> inventory.reserve(2L, line(3)));
+        verify(productRepo, never()).decrementStock(anyLong(), anyInt());
+
+        // First checkout commits: its units are no longer in flight
+        commit();
+        verify(productRepo, times(1)).decrementStock(PRODUCT_ID, 3);
+        inventory.reserve(3L, line(3));
+        commit();
+        verify(productRepo, times(2)).decrementStock(PRODUCT_ID, 3);
+    }
+
+    @Test
+    void theRowIsOnlyDecrementedWhenTheCheckoutCommits() {
+        inventory.reserve(1L, line(2));
+
+        verify(reservationRepo).saveAll(anyIterable());
+        verify(productRepo, never()).decrementStock(anyLong(), anyInt());
+
+        commit();
+        verify(productRepo).decrementStock(PRODUCT_ID, 2);
+    }
+
+    @Test
+    void databaseRefusalRollsBackAndReleasesTheMemoryHold() {
+        when(productRepo.decrementStock(PRODUCT_ID, 5)).thenReturn(0);   // sold by another instance
+
+        inventory.reserve(1L, line(5));
+        assertThrows(IllegalStateException.class, InventoryServiceImplTest::commit);
+
+        when(productRepo.decrementStock(PRODUCT_ID, 5)).thenReturn(1);
+        inventory.reserve(2L, line(5));
+        commit();
+        verify(productRepo, times(2)).decrementStock(PRODUCT_ID, 5);
+    }
+}
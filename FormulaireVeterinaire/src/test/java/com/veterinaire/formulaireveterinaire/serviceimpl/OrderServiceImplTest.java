@@ -0,0 +1,96 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.DAO.Cart.CartOrderRepository;
+import com.veterinaire.formulaireveterinaire.DAO.Cart.StatusTransitionRow;
+import com.veterinaire.formulaireveterinaire.DTO.Order.OrderPageResponse;
+import com.veterinaire.formulaireveterinaire.DTO.Order.OrderStatusTransitionResult;
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+import com.veterinaire.formulaireveterinaire.Events.OrderStatusChangedEvent;
+import com.veterinaire.formulaireveterinaire.entity.CartOrder;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderServiceImplTest {
+
+    @Mock private CartOrderRepository cartOrderRepo;
+    @Mock private ApplicationEventPublisher events;
+    @InjectMocks private OrderServiceImpl orderService;
+
+    private static List<CartOrder> orders(int count) {
+        LocalDateTime now = LocalDateTime.of(2025, 6, 1, 12, 0);
+        List<CartOrder> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            CartOrder order = new CartOrder();
+            order.setId(1000L - i);
+            order.setUserId(7L);
+            order.setStatus(OrderStatus.CONFIRMED);
+            order.setOrderNumber("ORD-" + i);
+            order.setTotalAmount(BigDecimal.TEN);
+            order.setConfirmedAt(now.minusMinutes(i));
+            orders.add(order);
+        }
+        return orders;
+    }
+
+    @Test
+    void extraRowMeansANextPageWithACursorOnTheLastRow() {
+        when(cartOrderRepo.findBy(any(Specification.class), any())).thenReturn(orders(21));
+
+        OrderPageResponse page = orderService.listOrders(7L, null, null, null, null, 20);
+
+        assertEquals(20, page.getOrders().size());
+        assertNotNull(page.getNextCursor());
+
+        // The cursor is accepted back as-is
+        when(cartOrderRepo.findBy(any(Specification.class), any())).thenReturn(orders(3));
+        OrderPageResponse last = orderService.listOrders(7L, null, null, null, page.getNextCursor(), 20);
+        assertEquals(3, last.getOrders().size());
+        assertNull(last.getNextCursor());
+    }
+
+    @Test
+    void rejectsForgedCursorsAndCartStatus() {
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.listOrders(7L, null, null, null, "not-a-cursor", 20));
+        assertThrows(IllegalArgumentException.class,
+                () -> orderService.listOrders(7L, OrderStatus.CART, null, null, null, 20));
+    }
+
+    @Test
+    void transitionUpdatesOnlyAllowedSourcesAndReportsTheRest() {
+        StatusTransitionRow shipped = mock(StatusTransitionRow.class);
+        when(shipped.getId()).thenReturn(1L);
+        when(shipped.getUserId()).thenReturn(7L);
+        when(shipped.getOrderNumber()).thenReturn("ORD-1");
+        when(cartOrderRepo.transitionStatus(anyCollection(), eq("SHIPPED"), eq(List.of("PROCESSING"))))
+                .thenReturn(List.of(shipped));
+
+        OrderStatusTransitionResult result = orderService.transitionStatus(List.of(1L, 2L, 2L), OrderStatus.SHIPPED);
+
+        assertEquals(2, result.getRequested());
+        assertEquals(1, result.getUpdated());
+        assertEquals(List.of(2L), result.getRejectedIds());
+        ArgumentCaptor<OrderStatusChangedEvent> event = ArgumentCaptor.forClass(OrderStatusChangedEvent.class);
+        verify(events).publishEvent(event.capture());
+        assertEquals(OrderStatus.SHIPPED, event.getValue().status());
+        assertEquals(1, event.getValue().orders().size());
+
+        assertThrows(IllegalArgumentException.class, () -> orderService.transitionStatus(List.of(1L), OrderStatus.CART));
+    }
+}
@@ -0,0 +1,62 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.DAO.RevokedTokenRepository;
+import com.veterinaire.formulaireveterinaire.entity.RevokedToken;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class TokenRevocationServiceImplTest {
+
+    @Mock private RevokedTokenRepository revokedTokenRepository;
+
+    private TokenRevocationServiceImpl revocations;
+
+    @BeforeEach
+    void setUp() {
+        revocations = new TokenRevocationServiceImpl(revokedTokenRepository);
+        ReflectionTestUtils.setField(revocations, "expectedTokens", 1000);
+        ReflectionTestUtils.setField(revocations, "falsePositiveRate", 0.01);
+        ReflectionTestUtils.setField(revocations, "syncOverlapMs", 30_000L);
+        when(revokedTokenRepository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(revokedTokenRepository.findByRevokedAtAfter(any())).thenReturn(List.of());
+        revocations.load();
+    }
+
+    private static RevokedToken revoked(String tokenId, Instant expiresAt) {
+        RevokedToken token = new RevokedToken();
+        token.setTokenId(tokenId);
+        token.setExpiresAt(expiresAt);
+        token.setRevokedAt(Instant.now());
+        return token;
+    }
+
+    @Test
+    void revocationsFromAnotherInstanceArePickedUpBySync() {
+        Instant later = Instant.now().plus(1, ChronoUnit.HOURS);
+        assertFalse(revocations.isRevoked("jti-remote"));
+
+        when(revokedTokenRepository.findByRevokedAtAfter(any()))
+                .thenReturn(List.of(revoked("jti-remote", later), revoked("jti-expired", Instant.now().minusSeconds(1))));
+        revocations.syncRecent();
+
+        assertTrue(revocations.isRevoked("jti-remote"));
+        assertFalse(revocations.isRevoked("jti-expired"));
+    }
+}
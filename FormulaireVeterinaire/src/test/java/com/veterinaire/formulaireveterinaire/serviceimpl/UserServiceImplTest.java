@@ -0,0 +1,83 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.Config.SecurityVersionRegistry;
+import com.veterinaire.formulaireveterinaire.DAO.OurVeterinaireRepository;
+import com.veterinaire.formulaireveterinaire.DAO.UserRepository;
+import com.veterinaire.formulaireveterinaire.Enums.SubscriptionStatus;
+import com.veterinaire.formulaireveterinaire.Mail.MailTemplateRegistry;
+import com.veterinaire.formulaireveterinaire.entity.OurVeterinaire;
+import com.veterinaire.formulaireveterinaire.entity.User;
+import com.veterinaire.formulaireveterinaire.service.EmailOutboxService;
+import com.veterinaire.formulaireveterinaire.service.PasswordHashingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.io.IOException;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class UserServiceImplTest {
+
+    private static final String MATRICULE = "VET-042";
+
+    @Mock private UserRepository userRepository;
+    @Mock private OurVeterinaireRepository ourVeterinaireRepository;
+    @Mock private PasswordHashingService passwordHashingService;
+    @Mock private EmailOutboxService emailOutbox;
+    @Mock private SecurityVersionRegistry securityVersionRegistry;
+
+    private UserServiceImpl userService;
+    private User existing;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        MailTemplateRegistry mailTemplates = new MailTemplateRegistry();
+        mailTemplates.load();
+        userService = new UserServiceImpl(userRepository, ourVeterinaireRepository, passwordHashingService,
+                emailOutbox, mailTemplates, securityVersionRegistry);
+
+        existing = registration(new User());
+        existing.setId(7L);
+        when(ourVeterinaireRepository.findByMatricule(MATRICULE)).thenReturn(Optional.of(new OurVeterinaire()));
+        when(userRepository.findByNumMatricule(MATRICULE)).thenReturn(Optional.of(existing));
+        when(passwordHashingService.encode(anyString())).thenReturn("hash");
+    }
+
+    private static User registration(User user) {
+        user.setNumMatricule(MATRICULE);
+        user.setNom("Ben Ali");
+        user.setPrenom("Sami");
+        user.setEmail("dr@vitalfeed.tn");
+        return user;
+    }
+
+    @Test
+    void regeneratingThePasswordEndsOutstandingSessions() {
+        existing.setStatus(SubscriptionStatus.INACTIVE);
+
+        userService.registerUser(registration(new User()));
+
+        verify(passwordHashingService).encode(anyString());
+        verify(securityVersionRegistry).bump(existing);
+        verify(emailOutbox).enqueue(eq("dr@vitalfeed.tn"), isNull(), anyString(), anyString());
+    }
+
+    @Test
+    void keepingThePasswordKeepsTheSessions() {
+        existing.setStatus(SubscriptionStatus.ACTIVE);
+
+        userService.registerUser(registration(new User()));
+
+        verify(passwordHashingService, never()).encode(anyString());
+        verify(securityVersionRegistry, never()).bump(any());
+    }
+}
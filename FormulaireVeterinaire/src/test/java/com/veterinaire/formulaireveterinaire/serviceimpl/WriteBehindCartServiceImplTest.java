@@ -0,0 +1,129 @@
+package com.veterinaire.formulaireveterinaire.serviceimpl;
+
+import com.veterinaire.formulaireveterinaire.DAO.Cart.CartOrderRepository;
+import com.veterinaire.formulaireveterinaire.DAO.Cart.OrderItemRepository;
+import com.veterinaire.formulaireveterinaire.DAO.ProductRepository;
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartItemRequest;
+import com.veterinaire.formulaireveterinaire.DTO.Cart.CartResponse;
+import com.veterinaire.formulaireveterinaire.Enums.OrderStatus;
+import com.veterinaire.formulaireveterinaire.entity.CartOrder;
+import com.veterinaire.formulaireveterinaire.entity.OrderItem;
+import com.veterinaire.formulaireveterinaire.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class WriteBehindCartServiceImplTest {
+
+    private static final Long USER_ID = 7L;
+    private static final Long CART_ID = 70L;
+
+    @Mock private CartServiceImpl databaseCarts;
+    @Mock private CartOrderRepository cartOrderRepo;
+    @Mock private OrderItemRepository itemRepo;
+    @Mock private ProductRepository productRepo;
+    @Mock private PlatformTransactionManager transactionManager;
+
+    private WriteBehindCartServiceImpl cartService;
+
+    @BeforeEach
+    void setUp() {
+        cartService = new WriteBehindCartServiceImpl(databaseCarts, cartOrderRepo, itemRepo, productRepo,
+                transactionManager, new SimpleMeterRegistry(), 16);
+        ReflectionTestUtils.setField(cartService, "idleEvictMs", 60_000L);
+
+        CartOrder cart = new CartOrder();
+        cart.setId(CART_ID);
+        cart.setUserId(USER_ID);
+        when(cartOrderRepo.findByUserIdAndStatus(USER_ID, OrderStatus.CART)).thenReturn(Optional.of(cart));
+        when(cartOrderRepo.updateTotalIfStatus(eq(CART_ID), any(), eq(OrderStatus.CART))).thenReturn(1);
+        when(itemRepo.findByOrderId(CART_ID)).thenReturn(List.of());
+        when(itemRepo.saveAll(anyIterable())).thenAnswer(invocation -> {
+            List<OrderItem> saved = new ArrayList<>();
+            for (OrderItem item : invocation.<Iterable<OrderItem>>getArgument(0)) {
+                item.setId(100L + item.getProductId());
+                saved.add(item);
+            }
+            return saved;
+        });
+        when(productRepo.findById(anyLong())).thenAnswer(invocation -> {
+            Product product = new Product();
+            product.setId(invocation.getArgument(0));
+            product.setName("Produit " + product.getId());
+            product.setPrice(BigDecimal.TEN);
+            return Optional.of(product);
+        });
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(databaseCarts.checkout(USER_ID)).thenReturn("ORD-TEST");
+    }
+
+    private static CartItemRequest add(Long productId, int quantity) {
+        CartItemRequest request = new CartItemRequest();
+        request.setProductId(productId);
+        request.setQuantity(quantity);
+        return request;
+    }
+
+    @Test
+    void mutationsStayInMemoryUntilFlush() {
+        cartService.addItem(USER_ID, add(1L, 1));
+        cartService.addItem(USER_ID, add(1L, 2));
+        Long itemId = cartService.addItem(USER_ID, add(2L, 1)).getItemId();
+        cartService.updateItem(USER_ID, itemId, 4);
+        CartResponse cart = cartService.getCart(USER_ID);
+
+        assertEquals(2, cart.getItems().size());
+        assertEquals(0, new BigDecimal("70").compareTo(cart.getTotalAmount()));
+        verify(itemRepo, never()).saveAll(anyIterable());
+        verify(cartOrderRepo, never()).updateTotalIfStatus(any(), any(), any());
+        verify(cartOrderRepo, never()).addToTotal(any(), any());
+    }
+
+    @Test
+    void flushCoalescesMutationsIntoOneWrite() {
+        for (int i = 0; i < 5; i++) {
+            cartService.addItem(USER_ID, add(1L, 1));
+        }
+        cartService.flushDirtyCarts();
+        cartService.flushDirtyCarts(); // clean: nothing more to write
+
+        verify(cartOrderRepo, times(1)).updateTotalIfStatus(CART_ID, new BigDecimal("50"), OrderStatus.CART);
+        verify(itemRepo, times(1)).saveAll(argThat(items -> {
+            List<OrderItem> saved = new ArrayList<>();
+            items.forEach(saved::add);
+            return saved.size() == 1 && saved.get(0).getQuantity() == 5;
+        }));
+        assertEquals(101L, cartService.getCart(USER_ID).getItems().get(0).getItemId());
+    }
+
+    @Test
+    void checkoutFlushesTheCartBeforeConfirming() {
+        cartService.addItem(USER_ID, add(3L, 2));
+
+        assertEquals("ORD-TEST", cartService.checkout(USER_ID));
+
+        InOrder inOrder = inOrder(cartOrderRepo, databaseCarts);
+        inOrder.verify(cartOrderRepo).updateTotalIfStatus(CART_ID, new BigDecimal("20"), OrderStatus.CART);
+        inOrder.verify(databaseCarts).checkout(USER_ID);
+    }
+}